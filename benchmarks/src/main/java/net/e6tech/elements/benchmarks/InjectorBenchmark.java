@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.benchmarks;
+
+import net.e6tech.elements.common.inject.Inject;
+import net.e6tech.elements.common.inject.Injector;
+import net.e6tech.elements.common.inject.Module;
+import net.e6tech.elements.common.inject.ModuleFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures InjectorImpl injecting field and setter injection points from a module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InjectorBenchmark {
+
+    private Injector injector;
+
+    @Setup
+    public void setup() {
+        Module module = ModuleFactory.getInstance().create();
+        module.bindInstance(Dependency.class, new Dependency());
+        module.bindNamedInstance(String.class, "greeting", "hello");
+        injector = module.build();
+    }
+
+    @Benchmark
+    public Target inject() {
+        Target target = new Target();
+        injector.inject(target);
+        return target;
+    }
+
+    public static class Dependency {
+    }
+
+    public static class Target {
+        @Inject
+        private Dependency dependency;
+
+        @Inject(optional = true)
+        private Runnable missing;
+
+        private String greeting;
+
+        public String getGreeting() {
+            return greeting;
+        }
+
+        @Inject
+        @net.e6tech.elements.common.inject.Named("greeting")
+        public void setGreeting(String greeting) {
+            this.greeting = greeting;
+        }
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+    }
+}
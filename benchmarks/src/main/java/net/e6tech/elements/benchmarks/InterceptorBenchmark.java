@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.benchmarks;
+
+import net.e6tech.elements.common.interceptor.CallFrame;
+import net.e6tech.elements.common.interceptor.Interceptor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of calling through an Interceptor proxy compared to a direct call, as well as the cost
+ * of wrapping an instance with a new proxy (the proxy class itself is cached).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterceptorBenchmark {
+
+    private Interceptor interceptor;
+    private Target target;
+    private Target proxy;
+    private int value = 7;
+
+    @Setup
+    public void setup() {
+        interceptor = new Interceptor();
+        target = new Target();
+        proxy = interceptor.newInterceptor(target, CallFrame::invoke);
+    }
+
+    @Benchmark
+    public int direct() {
+        return target.add(value, 1);
+    }
+
+    @Benchmark
+    public int dispatch() {
+        return proxy.add(value, 1);
+    }
+
+    @Benchmark
+    public Target newInterceptor() {
+        return interceptor.newInterceptor(target, CallFrame::invoke);
+    }
+
+    public static class Target {
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.benchmarks;
+
+import net.e6tech.elements.common.inject.Inject;
+import net.e6tech.elements.common.resources.Configurator;
+import net.e6tech.elements.common.resources.Injectable;
+import net.e6tech.elements.common.resources.ResourceManager;
+import net.e6tech.elements.common.resources.Resources;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Resources life cycle, i.e. ResourceManager.open followed by Resources.commit, and
+ * Resources.inject of an object graph containing an Injectable member.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourcesBenchmark {
+
+    private ResourceManager resourceManager;
+
+    @Setup
+    public void setup() {
+        resourceManager = new ResourceManager();
+        resourceManager.bind(Dependency.class, new Dependency());
+    }
+
+    @TearDown
+    public void tearDown() {
+        resourceManager.shutdown();
+    }
+
+    @Benchmark
+    public Object openCommit() {
+        Resources resources = resourceManager.open(new Configurator());
+        return resources.commit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object openCommitContended() {
+        Resources resources = resourceManager.open(new Configurator());
+        return resources.commit();
+    }
+
+    @Benchmark
+    public Target inject(OpenResources state) {
+        Target target = new Target();
+        target.nested = new Nested();
+        return state.resources.inject(target);
+    }
+
+    @State(Scope.Thread)
+    public static class OpenResources {
+        Resources resources;
+
+        @Setup
+        public void setup(ResourcesBenchmark benchmark) {
+            resources = benchmark.resourceManager.open(new Configurator());
+        }
+
+        @TearDown
+        public void tearDown() {
+            resources.abort();
+        }
+    }
+
+    public static class Dependency {
+    }
+
+    public static class Target {
+        @Inject
+        Resources resources;
+
+        @Inject
+        Dependency dependency;
+
+        @Injectable
+        Nested nested;
+    }
+
+    public static class Nested {
+        @Inject
+        Dependency dependency;
+    }
+}
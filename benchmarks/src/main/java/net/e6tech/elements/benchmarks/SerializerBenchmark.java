@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.benchmarks;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import com.typesafe.config.ConfigFactory;
+import net.e6tech.elements.network.cluster.Serializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Kryo based cluster Serializer.  The small payload is representative of a typical
+ * invocation message whereas the large one is representative of a data set transfer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    @Param({"16", "4096"})
+    private int size;
+
+    private ActorSystem system;
+    private Serializer serializer;
+    private Payload payload;
+    private byte[] bytes;
+    private String manifest;
+
+    @Setup
+    public void setup() {
+        system = ActorSystem.create("benchmark", ConfigFactory.parseString(
+                "akka.actor.provider = local\n" +
+                "akka.actor.elements.serializer.compression = 1\n" +
+                "akka.loglevel = WARNING"));
+        serializer = new Serializer((ExtendedActorSystem) system);
+        payload = new Payload();
+        payload.path = "default@net.e6tech.elements.benchmarks.SerializerBenchmark::execute";
+        for (int i = 0; i < size; i++)
+            payload.values.add("value-" + i);
+        manifest = serializer.manifest(payload);
+        bytes = serializer.toBinary(payload);
+    }
+
+    @TearDown
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    public byte[] toBinary() {
+        return serializer.toBinary(payload);
+    }
+
+    @Benchmark
+    public Object fromBinary() {
+        return serializer.fromBinary(bytes, manifest);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.fromBinary(serializer.toBinary(payload), manifest);
+    }
+
+    public static class Payload {
+        String path;
+        long timeout = 5000L;
+        List<String> values = new ArrayList<>();
+    }
+}
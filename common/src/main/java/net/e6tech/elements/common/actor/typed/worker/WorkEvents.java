@@ -20,6 +20,7 @@ import akka.actor.typed.ActorRef;
 import net.e6tech.elements.common.actor.typed.Ask;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 @SuppressWarnings("squid:S1948")
@@ -37,6 +38,24 @@ public interface WorkEvents {
         }
     }
 
+    class Batch implements WorkEvents, Serializable {
+        private static final long serialVersionUID = -2218737329337462127L;
+        private List<WorkEvents> tasks;
+
+        public Batch(List<WorkEvents> tasks) {
+            this.tasks = tasks;
+        }
+
+        public List<WorkEvents> getTasks() {
+            return tasks;
+        }
+    }
+
+    // tells a work stealing worker to drain its queue
+    class Drain implements WorkEvents, Serializable {
+        private static final long serialVersionUID = 5346468935000837441L;
+    }
+
     class ScheduleCleanup implements WorkEvents, Serializable {
         private static final long serialVersionUID = 1391045696378516373L;
     }
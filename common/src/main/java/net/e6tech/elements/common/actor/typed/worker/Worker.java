@@ -21,24 +21,31 @@ import akka.actor.typed.ActorRef;
 import net.e6tech.elements.common.actor.typed.Receptor;
 import net.e6tech.elements.common.actor.typed.Typed;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
 @SuppressWarnings("unchecked")
 public class Worker extends Receptor<WorkEvents, Worker> {
 
     private ActorRef<WorkEvents> pool;
+    private WorkerPool.Lane lane;
+    private Supplier<WorkerPool.Lane[]> lanes;
 
     public Worker(ActorRef<WorkEvents> pool) {
         this.pool = pool;
     }
 
+    // for work stealing
+    Worker(ActorRef<WorkEvents> pool, WorkerPool.Lane lane, Supplier<WorkerPool.Lane[]> lanes) {
+        this.pool = pool;
+        this.lane = lane;
+        this.lanes = lanes;
+    }
+
     @Typed
     private void run(WorkEvents.RunnableTask message) {
         try {
-            message.getRunnable().run();
-            if (message.getSender() != null)
-                message.getSender().tell(new WorkEvents.Response());
-        } catch (Exception th) {
-            if (message.getSender() != null)
-                message.getSender().tell(new Status.Failure(th));
+            perform(message);
         } finally {
             pool.tell(new WorkEvents.IdleWorker(getSelf()));
         }
@@ -47,14 +54,70 @@ public class Worker extends Receptor<WorkEvents, Worker> {
    @Typed
     private void call(WorkEvents.CallableTask message) {
         try {
-            Object ret = message.getCallable().call();
-            if (message.getSender() != null)
-                message.getSender().tell(new WorkEvents.Response(ret));
-        } catch (Exception th) {
-            if (message.getSender() != null)
-                message.getSender().tell(new Status.Failure(th));
+            perform(message);
+        } finally {
+            pool.tell(new WorkEvents.IdleWorker(getSelf()));
+        }
+    }
+
+    @Typed
+    private void batch(WorkEvents.Batch message) {
+        try {
+            for (WorkEvents task : message.getTasks())
+                perform(task);
         } finally {
             pool.tell(new WorkEvents.IdleWorker(getSelf()));
         }
     }
+
+    @Typed
+    private void drain(WorkEvents.Drain message) {
+        do {
+            WorkEvents task;
+            while ((task = lane.poll()) != null || (task = steal()) != null)
+                perform(task);
+            lane.deactivate();
+        } while (lane.hasWork() && lane.activate());
+        pool.tell(new WorkEvents.IdleWorker(getSelf()));
+    }
+
+    private WorkEvents steal() {
+        WorkerPool.Lane[] snapshot = lanes.get();
+        if (snapshot.length <= 1)
+            return null;
+        int start = ThreadLocalRandom.current().nextInt(snapshot.length);
+        for (int i = 0; i < snapshot.length; i++) {
+            WorkerPool.Lane victim = snapshot[(start + i) % snapshot.length];
+            if (victim != lane) {
+                WorkEvents task = victim.steal();
+                if (task != null)
+                    return task;
+            }
+        }
+        return null;
+    }
+
+    private void perform(WorkEvents task) {
+        if (task instanceof WorkEvents.RunnableTask) {
+            WorkEvents.RunnableTask message = (WorkEvents.RunnableTask) task;
+            try {
+                message.getRunnable().run();
+                if (message.getSender() != null)
+                    message.getSender().tell(new WorkEvents.Response());
+            } catch (Exception th) {
+                if (message.getSender() != null)
+                    message.getSender().tell(new Status.Failure(th));
+            }
+        } else if (task instanceof WorkEvents.CallableTask) {
+            WorkEvents.CallableTask message = (WorkEvents.CallableTask) task;
+            try {
+                Object ret = message.getCallable().call();
+                if (message.getSender() != null)
+                    message.getSender().tell(new WorkEvents.Response(ret));
+            } catch (Exception th) {
+                if (message.getSender() != null)
+                    message.getSender().tell(new Status.Failure(th));
+            }
+        }
+    }
 }
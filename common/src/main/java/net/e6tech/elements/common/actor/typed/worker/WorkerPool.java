@@ -27,7 +27,15 @@ import net.e6tech.elements.common.reflection.Reflection;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * By default, each task is a message to an idle worker, which reports back when it is done; tasks that
+ * arrive while all workers are busy wait in the pool and are handed out in batches.  With work stealing
+ * turned on in WorkerPoolConfig, tasks go to per-worker queues.  A worker keeps draining its queue, and then
+ * steals from the others, without going through the pool.
+ */
 @SuppressWarnings("unchecked")
 public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
 
@@ -36,6 +44,9 @@ public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
     private Set<ActorRef<WorkEvents>> idleWorkers = new LinkedHashSet<>();
     private Set<ActorRef<WorkEvents>> busyWorkers = new LinkedHashSet<>();
     private LinkedList<Task> waiting = new LinkedList<>();
+    private Map<ActorRef<WorkEvents>, Lane> lanes = new HashMap<>();
+    private volatile Lane[] laneSnapshot = new Lane[0];
+    private int nextLane = 0;
     protected WorkerPoolConfig config = new WorkerPoolConfig();
     private boolean stopped = true;
 
@@ -83,46 +94,77 @@ public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
         response.setIdleCount(idleWorkers.size());
         response.setWorkerCount(workers.size());
         response.setBusyCount(busyWorkers.size());
-        response.setWaitCount(waiting.size());
+        if (config.isWorkStealing()) {
+            int count = 0;
+            for (Lane lane : laneSnapshot)
+                count += lane.size();
+            response.setWaitCount(count);
+        } else {
+            response.setWaitCount(waiting.size());
+        }
         return response;
     }
 
     @Typed
     public void execute(WorkEvents.RunnableTask event) {
-        if (!idleWorkers.isEmpty()) {
+        dispatch(event, event.getSender());
+    }
+
+    @Typed
+    public void execute(WorkEvents.CallableTask event) {
+        dispatch(event, event.getSender());
+    }
+
+    private void dispatch(WorkEvents event, ActorRef sender) {
+        if (config.isWorkStealing()) {
+            schedule(event);
+        } else if (!idleWorkers.isEmpty()) {
             Iterator<ActorRef<WorkEvents>> iterator = idleWorkers.iterator();
-            ActorRef worker = iterator.next();
+            ActorRef<WorkEvents> worker = iterator.next();
             iterator.remove();
             busyWorkers.add(worker);
             worker.tell(event);
         } else if (workers.size() < config.getMaxCapacity()) {
             // put in waiting list.  When a work becomes idled, it will be picked up
-            waiting.add(new Task(event.getSender(), event));
+            waiting.add(new Task(sender, event));
             newWorker();
         } else {
-            waiting.add(new Task(event.getSender(), event));
+            waiting.add(new Task(sender, event));
         }
     }
 
-    @Typed
-    public void execute(WorkEvents.CallableTask event) {
+    private void schedule(WorkEvents event) {
+        if (idleWorkers.isEmpty() && workers.size() < config.getMaxCapacity())
+            newWorker();
+
+        Lane lane;
         if (!idleWorkers.isEmpty()) {
             Iterator<ActorRef<WorkEvents>> iterator = idleWorkers.iterator();
-            ActorRef<WorkEvents> worker = iterator.next();
+            lane = lanes.get(iterator.next());
             iterator.remove();
-            busyWorkers.add(worker);
-            worker.tell(event);
-        } else if (workers.size() < config.getMaxCapacity()) {
-            // put in waiting list.  When a work becomes idled, it will be picked up
-            waiting.add(new Task(event.getSender(), event));
-            newWorker();
         } else {
-            waiting.add(new Task(event.getSender(), event));
+            // every worker is busy, spread the work and let them steal from each other.
+            Lane[] snapshot = laneSnapshot;
+            nextLane = (nextLane + 1) % snapshot.length;
+            lane = snapshot[nextLane];
         }
+        lane.offer(event);
+        busyWorkers.add(lane.worker);
+        if (lane.activate())
+            lane.worker.tell(new WorkEvents.Drain());
     }
 
     private void newWorker() {
-        ActorRef<WorkEvents> worker = childActor(Worker.class).spawn(new Worker(getSelf()));
+        ActorRef<WorkEvents> worker;
+        if (config.isWorkStealing()) {
+            Lane lane = new Lane();
+            worker = childActor(Worker.class).spawn(new Worker(getSelf(), lane, () -> laneSnapshot));
+            lane.worker = worker;
+            lanes.put(worker, lane);
+            laneSnapshot = lanes.values().toArray(new Lane[0]);
+        } else {
+            worker = childActor(Worker.class).spawn(new Worker(getSelf()));
+        }
         workers.add(worker);
         idle(worker);
     }
@@ -133,11 +175,25 @@ public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
     }
 
     private void idle(ActorRef<WorkEvents> worker) {
+        if (config.isWorkStealing()) {
+            Lane lane = lanes.get(worker);
+            // the worker may have been given more work after it reported idle.
+            if (lane == null || lane.isActive() || lane.hasWork())
+                return;
+        }
+
         if (!waiting.isEmpty()) {
             // there are tasks waiting.  Instead of idle this work, make it do work.
-            WorkerPool.Task task = waiting.removeFirst();
             busyWorkers.add(worker);
-            worker.tell(task.getWork());
+            int count = Math.min(config.getBatchSize(), Math.max(1, waiting.size() / workers.size()));
+            if (count == 1) {
+                worker.tell(waiting.removeFirst().getWork());
+            } else {
+                List<WorkEvents> tasks = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    tasks.add(waiting.removeFirst().getWork());
+                worker.tell(new WorkEvents.Batch(tasks));
+            }
         } else {
             busyWorkers.remove(worker);
             idleWorkers.add(worker);
@@ -180,8 +236,11 @@ public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
         for (ActorRef<WorkEvents> worker : stopList) {
             workers.remove(worker);
             idleWorkers.remove(worker);
+            lanes.remove(worker);
             getContext().stop(worker);
         }
+        if (config.isWorkStealing())
+            laneSnapshot = lanes.values().toArray(new Lane[0]);
         cleanupScheduled = false;
     }
 
@@ -191,6 +250,45 @@ public class WorkerPool extends Receptor<WorkEvents, WorkerPool> {
         notifyAll();
     }
 
+    // a work stealing worker's queue.  The owner takes from the head and others steal from the tail.
+    static class Lane {
+        private final Deque<WorkEvents> deque = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean active = new AtomicBoolean();
+        private ActorRef<WorkEvents> worker;
+
+        void offer(WorkEvents task) {
+            deque.offerLast(task);
+        }
+
+        WorkEvents poll() {
+            return deque.pollFirst();
+        }
+
+        WorkEvents steal() {
+            return deque.pollLast();
+        }
+
+        boolean hasWork() {
+            return !deque.isEmpty();
+        }
+
+        int size() {
+            return deque.size();
+        }
+
+        boolean activate() {
+            return active.compareAndSet(false, true);
+        }
+
+        void deactivate() {
+            active.set(false);
+        }
+
+        boolean isActive() {
+            return active.get();
+        }
+    }
+
     private class Task {
         ActorRef sender;
         WorkEvents work;
@@ -22,6 +22,8 @@ public class WorkerPoolConfig {
     private long idleTimeout = 10000L;
     private String name = "WorkerPool";
     private String dispatcher;
+    private boolean workStealing = false;
+    private int batchSize = 8;
 
     public String getName() {
         return name;
@@ -55,6 +57,31 @@ public class WorkerPoolConfig {
         this.idleTimeout = idleTimeout;
     }
 
+    public boolean isWorkStealing() {
+        return workStealing;
+    }
+
+    /**
+     * @param workStealing if true, each worker has its own queue and idle workers steal from busy ones, so
+     *                     a busy worker picks up its next task without a message round trip to the pool.
+     */
+    public void setWorkStealing(boolean workStealing) {
+        this.workStealing = workStealing;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize maximum number of waiting tasks handed to an idle worker in one message.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException();
+        this.batchSize = batchSize;
+    }
+
     public String getDispatcher() {
         return dispatcher;
     }
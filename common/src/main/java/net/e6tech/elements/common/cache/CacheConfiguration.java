@@ -20,7 +20,6 @@ import net.e6tech.elements.common.util.SystemException;
 import javax.cache.Cache;
 import javax.cache.CacheException;
 import javax.cache.CacheManager;
-import javax.cache.Caching;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -39,6 +38,12 @@ public class CacheConfiguration {
     private long expiry = DEFAULT_EXPIRY;
     private long maxEntries = 1024L;
     private boolean storeByValue = false;
+    private double refreshAhead = 0;
+    private long offHeapSize = 0;       // in MB
+    private long diskSize = 0;          // in MB
+    private String diskPath;
+    private boolean diskPersistent = false;
+    private boolean statistics = false;
 
     public CacheConfiguration() {
         // default constructor
@@ -78,6 +83,83 @@ public class CacheConfiguration {
         this.storeByValue = storeByValue;
     }
 
+    public double getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * @param refreshAhead fraction of expiry, between 0 and 1, after which CacheFacade.get(key, callable) reloads
+     *                     an entry in the background while still returning the current value.  0 turns it off.
+     */
+    public void setRefreshAhead(double refreshAhead) {
+        if (refreshAhead < 0 || refreshAhead >= 1)
+            throw new IllegalArgumentException();
+        this.refreshAhead = refreshAhead;
+    }
+
+    public long getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    /**
+     * @param offHeapSize size in MB of the off-heap tier, which sits below the heap tier of maxEntries entries.
+     *                    0 means no off-heap tier.  Keys and values must be Serializable.
+     */
+    public void setOffHeapSize(long offHeapSize) {
+        if (offHeapSize < 0)
+            throw new IllegalArgumentException();
+        this.offHeapSize = offHeapSize;
+    }
+
+    public long getDiskSize() {
+        return diskSize;
+    }
+
+    /**
+     * @param diskSize size in MB of the local disk tier, the lowest tier.  0 means no disk tier.  It requires
+     *                 diskPath and must be larger than offHeapSize.
+     */
+    public void setDiskSize(long diskSize) {
+        if (diskSize < 0)
+            throw new IllegalArgumentException();
+        this.diskSize = diskSize;
+    }
+
+    public String getDiskPath() {
+        return diskPath;
+    }
+
+    public void setDiskPath(String diskPath) {
+        this.diskPath = diskPath;
+    }
+
+    public boolean isDiskPersistent() {
+        return diskPersistent;
+    }
+
+    /**
+     * @param diskPersistent if true, the disk tier survives restarts.
+     */
+    public void setDiskPersistent(boolean diskPersistent) {
+        this.diskPersistent = diskPersistent;
+    }
+
+    public boolean isStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param statistics if true, the provider's JCache statistics MXBean is turned on for caches created
+     *                   with this configuration.
+     */
+    public void setStatistics(boolean statistics) {
+        this.statistics = statistics;
+    }
+
+    public boolean hasDiskTier() {
+        return diskSize > 0;
+    }
+
     public synchronized CacheManager getCacheManager() {
         if (cacheManager != null)
             return cacheManager;
@@ -89,7 +171,13 @@ public class CacheConfiguration {
                 throw new SystemException(e);
             }
         }
-        cacheManager = managers.computeIfAbsent(provider.getProviderClassName(), key ->  Caching.getCachingProvider(key).getCacheManager());
+        String key = provider.getProviderClassName();
+        if (hasDiskTier()) {
+            if (diskPath == null)
+                throw new IllegalStateException("diskPath is required for a disk tier");
+            key += "|" + diskPath;
+        }
+        cacheManager = managers.computeIfAbsent(key, k -> provider.getCacheManager(this));
         return cacheManager;
     }
 
@@ -100,7 +188,10 @@ public class CacheConfiguration {
             return cache;
 
         try {
-            return provider.createCache(this, name, keyClass, valueClass);
+            cache = provider.createCache(this, name, keyClass, valueClass);
+            if (statistics)
+                manager.enableStatistics(name, true);
+            return cache;
         } catch (CacheException ex) {
             cache = manager.getCache(name, keyClass, valueClass);
             if (cache != null)
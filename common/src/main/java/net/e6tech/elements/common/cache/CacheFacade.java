@@ -16,28 +16,47 @@
 
 package net.e6tech.elements.common.cache;
 
+import com.google.common.cache.CacheBuilder;
 import net.e6tech.elements.common.inject.Inject;
+import net.e6tech.elements.common.logging.Logger;
 import net.e6tech.elements.common.reflection.Reflection;
 import net.e6tech.elements.common.util.SystemException;
+import net.e6tech.elements.common.util.concurrent.ThreadPool;
 
 import javax.cache.Cache;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.concurrent.Callable;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
  * This class should be instantiated as an anonymous class.  For example,
  * {@code new CacheFacade&lt;K,V&gt;("name") {}}
+ *
+ * Concurrent misses on the same key in get(key, callable) share a single call to the loader.  If the
+ * configuration sets refreshAhead, an entry older than that fraction of expiry is reloaded in the
+ * background while the current value is returned.
  * Created by futeh.
  */
 @SuppressWarnings("unchecked")
 public abstract class CacheFacade<K, V> {
+    private static Logger logger = Logger.getLogger();
+    private static final String REFRESH_POOL = "CacheFacade";
+    private static final int REFRESH_THREADS = 4;
+    private static final int REFRESH_QUEUE_SIZE = 1024;
+
     protected CacheConfiguration configuration;
     protected String name;
     protected Class keyClass;
     protected Class valueClass;
-    Cache<K, V> cache;
+    volatile Cache<K, V> cache;
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private volatile com.google.common.cache.Cache<K, Long> loadTimes;
+    private Executor refreshPool;  // set before loadTimes, which guards its use
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
 
     public CacheFacade() {
         this(Reflection.getCallingClass(), null);
@@ -107,41 +126,143 @@ public abstract class CacheFacade<K, V> {
         this.configuration = configuration;
     }
 
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
     public V get(K key) {
-        return getCache().get(key);
+        return count(getCache().get(key));
+    }
+
+    private V count(V value) {
+        if (value == null)
+            misses.increment();
+        else
+            hits.increment();
+        return value;
     }
 
     public V get(K key, Callable<V> callable) {
         Cache<K,V> c = getCache();
-        V value = c.get(key);
-        if (value == null) {
-            try {
-                value = callable.call();
-                if (value != null)
-                    c.put(key, value);
-            } catch (Exception e) {
-                throw new SystemException(e);
-            }
+        V value = count(c.get(key));
+        if (value != null) {
+            if (loadTimes != null)
+                refreshAhead(c, key, callable);
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            value = await(existing);
+            // nothing was loaded, e.g. a refresh the pool rejected; load on this thread instead.
+            return (value != null) ? value : load(c, key, callable);
+        }
+
+        try {
+            value = c.get(key);  // loaded by another thread between the first get and putIfAbsent
+            if (value == null)
+                value = load(c, key, callable);
+            future.complete(value);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
         }
         return value;
     }
 
+    private V load(Cache<K,V> c, K key, Callable<V> callable) {
+        V value;
+        try {
+            value = callable.call();
+        } catch (Exception e) {
+            throw new SystemException(e);
+        }
+        if (value != null)
+            put(c, key, value);
+        return value;
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new SystemException(e.getCause());
+        }
+    }
+
+    private void refreshAhead(Cache<K,V> c, K key, Callable<V> callable) {
+        Long loadTime = loadTimes.getIfPresent(key);
+        if (loadTime == null
+                || System.currentTimeMillis() - loadTime < configuration.getExpiry() * configuration.getRefreshAhead())
+            return;
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, future) != null)
+            return;
+        try {
+            refreshPool.execute(() -> {
+                try {
+                    future.complete(load(c, key, callable));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                    logger.warn("Cannot refresh " + name + " key=" + key, e);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // too many refreshes pending; the entry is reloaded on a later get or after it expires.
+            loading.remove(key, future);
+            future.complete(null);
+        }
+    }
+
     public boolean remove(K key) {
         Cache<K,V> c = getCache();
+        if (loadTimes != null)
+            loadTimes.invalidate(key);
         return c.remove(key);
     }
 
     public void put(K key, V value) {
-        getCache().put(key, value);
+        put(getCache(), key, value);
+    }
+
+    private void put(Cache<K,V> c, K key, V value) {
+        c.put(key, value);
+        if (loadTimes != null)
+            loadTimes.put(key, System.currentTimeMillis());
     }
 
-    protected synchronized Cache<K,V> getCache() {
-        if (cache != null)
+    protected Cache<K,V> getCache() {
+        Cache<K,V> c = cache;
+        if (c != null)
+            return c;
+        synchronized (this) {
+            if (cache != null)
+                return cache;
+            if (configuration == null) {
+                initPool();
+            }
+            if (configuration.getRefreshAhead() > 0) {
+                CacheBuilder builder = CacheBuilder.newBuilder()
+                        .expireAfterWrite(configuration.getExpiry(), TimeUnit.MILLISECONDS);
+                if (configuration.getMaxEntries() > 0)
+                    builder.maximumSize(configuration.getMaxEntries());
+                refreshPool = ThreadPool.boundedThreadPool(REFRESH_POOL, REFRESH_THREADS, REFRESH_QUEUE_SIZE);
+                loadTimes = builder.build();
+            }
+            cache = configuration.getCache(name, keyClass, valueClass);
             return cache;
-        if (configuration == null) {
-            initPool();
         }
-        cache = configuration.getCache(name, keyClass, valueClass);
-        return cache;
     }
 }
@@ -17,6 +17,8 @@
 package net.e6tech.elements.common.cache;
 
 import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 
 /**
  * Created by futeh.
@@ -25,5 +27,13 @@ public interface CacheProvider {
 
     String getProviderClassName();
 
+    /**
+     * Returns a cache manager suitable for the configuration, e.g. one with disk persistence when
+     * the configuration has a disk tier.
+     */
+    default CacheManager getCacheManager(CacheConfiguration configuration) {
+        return Caching.getCachingProvider(getProviderClassName()).getCacheManager();
+    }
+
     <K,V> Cache<K,V> createCache(CacheConfiguration cachePool, String poolName, Class<K> keyClass, Class<V> valueClass);
 }
@@ -21,11 +21,17 @@ import net.e6tech.elements.common.cache.CacheProvider;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
 import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.ehcache.jsr107.EhcacheCachingProvider;
 
 import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.File;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -45,11 +51,28 @@ public class EhcacheProvider implements CacheProvider {
         return EhcacheCachingProvider.class.getName();
     }
 
+    @Override
+    public CacheManager getCacheManager(CacheConfiguration cachePool) {
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(getProviderClassName());
+        if (!cachePool.hasDiskTier())
+            return cachingProvider.getCacheManager();
+
+        // a disk tier needs a cache manager that knows where to store its data.
+        File directory = new File(cachePool.getDiskPath());
+        DefaultConfiguration configuration = new DefaultConfiguration(cachingProvider.getDefaultClassLoader(),
+                new DefaultPersistenceConfiguration(directory));
+        return cachingProvider.getCacheManager(directory.toURI(), configuration);
+    }
+
     public <K,V> Cache<K,V> createCache(CacheConfiguration cachePool, String poolName, Class<K> keyClass, Class<V> valueClass) {
 
         ResourcePoolsBuilder builder = (cachePool.getMaxEntries() > 0)
                 ? ResourcePoolsBuilder.heap(cachePool.getMaxEntries())
                 : ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (cachePool.getOffHeapSize() > 0)
+            builder = builder.offheap(cachePool.getOffHeapSize(), MemoryUnit.MB);
+        if (cachePool.hasDiskTier())
+            builder = builder.disk(cachePool.getDiskSize(), MemoryUnit.MB, cachePool.isDiskPersistent());
 
         ExpiryPolicy policy = ExpiryPolicyBuilder.timeToLiveExpiration(java.time.Duration.ofMillis(cachePool.getExpiry()));
         org.ehcache.config.CacheConfiguration cacheConfiguration = CacheConfigurationBuilder
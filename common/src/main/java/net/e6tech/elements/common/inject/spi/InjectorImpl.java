@@ -47,16 +47,16 @@ import java.util.function.Supplier;
 public class InjectorImpl implements Injector {
     private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
 
-    private static LoadingCache<Class<?>, List<InjectionPoint>> injectionPoints = CacheBuilder.newBuilder()
+    private static LoadingCache<Class<?>, InjectionPoint[]> injectionPoints = CacheBuilder.newBuilder()
             .maximumSize(10000)
             .initialCapacity(200)
             .concurrencyLevel(Provision.cacheBuilderConcurrencyLevel)
             .expireAfterWrite(360 * 60 * 1000L, TimeUnit.MILLISECONDS)
-            .build(new CacheLoader<Class<?>, List<InjectionPoint>>() {
-        public List<InjectionPoint> load(Class<?> instanceClass)  {
+            .build(new CacheLoader<Class<?>, InjectionPoint[]>() {
+        public InjectionPoint[] load(Class<?> instanceClass)  {
             List<InjectionPoint> points = injectionProperties(instanceClass);
             points.addAll(injectionFields(instanceClass));
-            return points;
+            return points.toArray(new InjectionPoint[0]);
         }
     });
 
@@ -112,7 +112,7 @@ public class InjectorImpl implements Injector {
         if (instance == null)
             return false;
         Class instanceClass = instance.getClass();
-        List<InjectionPoint> points;
+        InjectionPoint[] points;
         boolean allInjected = true;
         try {
             points = injectionPoints.get(instanceClass);
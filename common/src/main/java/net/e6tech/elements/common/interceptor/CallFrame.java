@@ -16,6 +16,9 @@
 
 package net.e6tech.elements.common.interceptor;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.e6tech.elements.common.resources.Provision;
 import net.e6tech.elements.common.util.SystemException;
 
 import java.lang.annotation.Annotation;
@@ -23,11 +26,20 @@ import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
 
 public class CallFrame {
 
     private static final Object[] EMPTY_ARGS = new Object[0];
 
+    // Invokers are computed once per method so that calls do not need to allocate a bound MethodHandle or a lambda.
+    private static Cache<Method, Invoke> invokers = CacheBuilder.newBuilder()
+            .initialCapacity(200)
+            .maximumSize(10000)
+            .expireAfterAccess(180 * 60 * 1000L, TimeUnit.MILLISECONDS)
+            .concurrencyLevel(Provision.cacheBuilderConcurrencyLevel)
+            .build();
+
     private Object target;
     private MethodHandle handle;
     private Object[] arguments;
@@ -42,21 +54,25 @@ public class CallFrame {
         this.handle = handle;
         this.method = method;
         this.arguments = (arguments == null) ? EMPTY_ARGS : arguments;
-
-        if (Modifier.isPublic(getMethod().getModifiers())) {
-            invoke = t -> handle.bindTo(t).invokeWithArguments(arguments);
-        } else {
-            invoke = t -> getMethod().invoke(t, arguments);
-        }
+        this.invoke = invoker(handle, method);
         return this;
     }
 
-    void clear() {
-        this.target = null;
-        this.handle = null;
-        this.method = null;
-        this.arguments = EMPTY_ARGS;
-        invoke = null;
+    private static Invoke invoker(MethodHandle handle, Method method) {
+        Invoke invoker = invokers.getIfPresent(method);
+        if (invoker == null) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                // (Object target, Object[] arguments)Object so that invokeExact can be used without any conversion at call time.
+                MethodHandle fixed = handle.asFixedArity();
+                MethodHandle spreader = fixed.asType(fixed.type().generic())
+                        .asSpreader(Object[].class, method.getParameterCount());
+                invoker = (t, args) -> (Object) spreader.invokeExact(t, args);
+            } else {
+                invoker = method::invoke;
+            }
+            invokers.put(method, invoker);
+        }
+        return invoker;
     }
 
     public Object[] getArguments() {
@@ -84,8 +100,17 @@ public class CallFrame {
     }
 
     public Object invoke(Object anotherTarget) {
+        return invoke(invoke, anotherTarget, arguments);
+    }
+
+    // used when there is neither a handler nor a listener so that no frame is needed.
+    static Object invoke(Object target, MethodHandle handle, Method method, Object[] arguments) {
+        return invoke(invoker(handle, method), target, (arguments == null) ? EMPTY_ARGS : arguments);
+    }
+
+    private static Object invoke(Invoke invoke, Object target, Object[] arguments) {
         try {
-            return invoke.apply(anotherTarget);
+            return invoke.apply(target, arguments);
         } catch (InvocationTargetException th) {
             throw new SystemException(th.getTargetException());
         } catch (Throwable th) {
@@ -96,6 +121,6 @@ public class CallFrame {
     @SuppressWarnings("squid:S00112")
     @FunctionalInterface
     interface Invoke {
-        Object apply(Object t) throws Throwable;
+        Object apply(Object t, Object[] arguments) throws Throwable;
     }
 }
@@ -37,7 +37,6 @@ import net.e6tech.elements.common.reflection.Primitives;
 import net.e6tech.elements.common.reflection.Reflection;
 import net.e6tech.elements.common.resources.Provision;
 import net.e6tech.elements.common.util.SystemException;
-import net.e6tech.elements.common.util.concurrent.ObjectPool;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
@@ -429,7 +428,6 @@ public class Interceptor {
     }
 
     static class InterceptorHandlerWrapper implements Handler {
-        private static ObjectPool<CallFrame> objectPool = new ObjectPool<CallFrame>().factory(CallFrame::new).build();
         InterceptorHandler handler;
         InterceptorListener listener;
         Object target;
@@ -467,29 +465,24 @@ public class Interceptor {
         }
 
         public Object handle(MethodHandle methodHandle, Method method, @RuntimeType  Object[] arguments) throws Throwable {
-            CallFrame frame = null;
+            if (handler == null && listener == null)
+                return CallFrame.invoke(target, methodHandle, method, arguments);
+
+            // a frame is short lived and cheaper to allocate than to check in and out of a pool.
+            CallFrame frame = new CallFrame().initialize(target, methodHandle, method, arguments);
+            if (listener != null)
+                listener.preInvocation(frame);
+            Object ret;
             try {
-                frame = objectPool.checkOut();
-                frame.initialize(target, methodHandle, method, arguments);
+                ret = (handler != null) ? handler.invoke(frame) : frame.invoke();
+            } catch (Throwable throwable) {
                 if (listener != null)
-                    listener.preInvocation(frame);
-                Object ret;
-                try {
-                    ret = handler.invoke(frame);
-                } catch (Throwable throwable) {
-                    if (listener != null)
-                        return listener.onException(frame, throwable);
-                    else throw throwable;
-                }
-                if (listener != null)
-                    ret = listener.postInvocation(frame, ret);
-                return ret;
-            } finally {
-                if (frame != null) {
-                    frame.clear();
-                    objectPool.checkIn(frame);
-                }
+                    return listener.onException(frame, throwable);
+                else throw throwable;
             }
+            if (listener != null)
+                ret = listener.postInvocation(frame, ret);
+            return ret;
         }
     }
 }
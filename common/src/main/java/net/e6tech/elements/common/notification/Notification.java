@@ -25,4 +25,12 @@ public interface Notification extends Serializable {
     default Object source() {
         return null;
     }
+
+    /**
+     * Notifications with the same non-null key that are waiting to be delivered to an
+     * asynchronous listener are coalesced, i.e., only the latest one is delivered.
+     */
+    default Object coalescingKey() {
+        return null;
+    }
 }
@@ -16,48 +16,104 @@ limitations under the License.
 
 package net.e6tech.elements.common.notification;
 
+import net.e6tech.elements.common.logging.Logger;
 import net.e6tech.elements.common.subscribe.Broadcast;
 import net.e6tech.elements.common.subscribe.Subscriber;
+import net.e6tech.elements.common.util.concurrent.SerialMailbox;
+import net.e6tech.elements.common.util.concurrent.ThreadPool;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Created by futeh on 1/21/16.
+ *
+ * Listeners are called on the sender's thread unless NotificationListener.isAsync returns true,
+ * in which case notifications are queued per listener and delivered in batches on the executor.
  */
 @SuppressWarnings({"unchecked", "squid:S1149"})
 public class NotificationCenter implements Broadcast {
+    private static Logger logger = Logger.getLogger();
 
     private Map<Object, List<NotificationListener>> srcNotificationListeners = new ConcurrentHashMap<>();
     private Map<Class, List<NotificationListener>> notificationListeners = new ConcurrentHashMap<>();
+    private Map<NotificationListener, AsyncDelivery> asyncListeners = new ConcurrentHashMap<>();
+    // listeners resolved per notification class; replaced whenever listeners are added or removed.
+    private volatile Map<Class, NotificationListener[]> resolved = new ConcurrentHashMap<>();
+    private Executor executor;
+    private int batchSize = 256;
 
     // for broadcasting
     Map<Object, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
     List<Broadcast> broadcasts = new CopyOnWriteArrayList<>();
 
+    public Executor getExecutor() {
+        if (executor == null)
+            executor = ThreadPool.cachedThreadPool("NotificationCenter");
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize maximum number of notifications delivered to an asynchronous listener in one onEvents call.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     public void addSourceNotificationListener(Object src, NotificationListener listener) {
         List<NotificationListener> listeners = srcNotificationListeners.computeIfAbsent(src, n -> new CopyOnWriteArrayList<>());
-        listeners.add(listener);
+        listeners.add(delivery(listener));
     }
 
     public void removeSourceNotificationListener(Object src, NotificationListener listener) {
         List<NotificationListener> listeners = srcNotificationListeners.computeIfAbsent(src, n -> new CopyOnWriteArrayList<>());
-        listeners.remove(listener);
+        listeners.remove(undelivery(listener));
+        released(listener);
     }
 
     public <T extends Notification> void addNotificationListener(Class<T> cls, NotificationListener<T> listener) {
         List<NotificationListener> listeners = notificationListeners.computeIfAbsent(cls, n -> new CopyOnWriteArrayList<>());
-        listeners.add(listener);
+        listeners.add(delivery(listener));
+        resolved = new ConcurrentHashMap<>();
     }
 
     public <T extends Notification> void removeNotificationListener(Class<T> cls, NotificationListener<T> listener) {
         List<NotificationListener> listeners = notificationListeners.computeIfAbsent(cls, n -> new CopyOnWriteArrayList<>());
-        listeners.remove(listener);
+        listeners.remove(undelivery(listener));
+        released(listener);
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    private NotificationListener delivery(NotificationListener listener) {
+        if (!listener.isAsync())
+            return listener;
+        return asyncListeners.computeIfAbsent(listener, AsyncDelivery::new);
+    }
+
+    private NotificationListener undelivery(NotificationListener listener) {
+        if (!listener.isAsync())
+            return listener;
+        AsyncDelivery delivery = asyncListeners.get(listener);
+        return delivery == null ? listener : delivery;
+    }
+
+    private void released(NotificationListener listener) {
+        AsyncDelivery delivery = asyncListeners.get(listener);
+        if (delivery != null
+                && srcNotificationListeners.values().stream().noneMatch(l -> l.contains(delivery))
+                && notificationListeners.values().stream().noneMatch(l -> l.contains(delivery)))
+            asyncListeners.remove(listener, delivery);
     }
 
     public void fireNotification(Notification notification) {
@@ -68,15 +124,20 @@ public class NotificationCenter implements Broadcast {
             }
         }
 
-        Class cls = notification.getClass();
+        // if listeners change while resolving, the result goes into a map that has already been replaced.
+        for (NotificationListener listener : resolved.computeIfAbsent(notification.getClass(), this::resolve))
+            listener.onEvent(notification);
+    }
+
+    private NotificationListener[] resolve(Class notificationClass) {
+        Class cls = notificationClass;
         while (!cls.equals(Object.class)) {
             List<NotificationListener> listeners = notificationListeners.get(cls);
-            if (listeners != null) {
-                listeners.forEach(listener -> listener.onEvent(notification));
-                break;
-            }
+            if (listeners != null)
+                return listeners.toArray(new NotificationListener[0]);
             cls = cls.getSuperclass();
         }
+        return new NotificationListener[0];
     }
 
     public List<NotificationListener> getNotificationListeners(Notification notification) {
@@ -93,6 +154,76 @@ public class NotificationCenter implements Broadcast {
         return list == null ? Collections.emptyList() : list;
     }
 
+    // ***************************************************************************************
+    // Asynchronous delivery
+    // ***************************************************************************************
+    private class AsyncDelivery implements NotificationListener<Notification> {
+        private final NotificationListener<Notification> listener;
+        private final SerialMailbox<Notification> mailbox = new SerialMailbox<Notification>() {
+            @Override
+            protected Executor executor() {
+                return getExecutor();
+            }
+
+            // at most one drain per listener is running so that notifications are delivered in order.
+            @Override
+            protected int deliver(Queue<Notification> queue) {
+                List<Notification> batch = poll(queue);
+                if (!batch.isEmpty()) {
+                    try {
+                        listener.onEvents(batch);
+                    } catch (Exception ex) {
+                        logger.warn("Notification listener " + listener.getDescription() + " failed", ex);
+                    }
+                }
+                return batch.size();
+            }
+        };
+
+        AsyncDelivery(NotificationListener<Notification> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public Class<? extends Notification>[] getNotificationTypes() {
+            return listener.getNotificationTypes();
+        }
+
+        @Override
+        public String getDescription() {
+            return listener.getDescription();
+        }
+
+        @Override
+        public void onEvent(Notification notification) {
+            mailbox.post(notification);
+        }
+
+        private List<Notification> poll(Queue<Notification> queue) {
+            List<Notification> batch = new ArrayList<>();
+            Map<Object, Integer> positions = null;
+            Notification notification;
+            int polled = 0;
+            while (polled++ < batchSize && (notification = queue.poll()) != null) {
+                Object key = notification.coalescingKey();
+                if (key == null) {
+                    batch.add(notification);
+                    continue;
+                }
+                if (positions == null)
+                    positions = new HashMap<>();
+                Integer position = positions.get(key);
+                if (position == null) {
+                    positions.put(key, batch.size());
+                    batch.add(notification);
+                } else {
+                    batch.set(position, notification);
+                }
+            }
+            return batch;
+        }
+    }
+
     // ***************************************************************************************
     // Broadcast
     // ***************************************************************************************
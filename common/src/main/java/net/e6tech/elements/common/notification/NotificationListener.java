@@ -19,6 +19,7 @@ package net.e6tech.elements.common.notification;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
+import java.util.List;
 
 /**
  * Created by futeh on 1/21/16.
@@ -69,5 +70,18 @@ public interface NotificationListener<T extends Notification> {
         return getClass().getName();
     }
 
+    /**
+     * An asynchronous listener is called on a NotificationCenter thread instead of the sender's thread.
+     * Notifications are queued per listener and delivered in batches through onEvents.
+     */
+    default boolean isAsync() {
+        return false;
+    }
+
+    default void onEvents(List<T> notifications) {
+        for (T notification : notifications)
+            onEvent(notification);
+    }
+
     void onEvent(T notification);
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.reflection;
+
+import net.e6tech.elements.common.util.SystemException;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copies one property from a source class to a target class.  Instances are built once per
+ * class pair by {@link #forClasses(Class, Class)} and cached by Reflection so that a copy
+ * is a straight getter and setter call.  DoNotCopy and DoNotAccept are resolved when the
+ * copier is built.
+ */
+@SuppressWarnings({"unchecked", "squid:S1141"})
+final class PropertyCopier {
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final PropertyDescriptor sourceDescriptor;
+    private final PropertyDescriptor targetDescriptor;
+    private final Method readMethod;
+    private final Method writeMethod;
+    private final Type targetType;
+    private final boolean assignable;
+    private MethodHandle getter;
+    private MethodHandle setter;
+    private Function lambdaGetter;
+    private BiConsumer lambdaSetter;
+
+    private PropertyCopier(PropertyDescriptor sourceDescriptor, PropertyDescriptor targetDescriptor) {
+        this.sourceDescriptor = sourceDescriptor;
+        this.targetDescriptor = targetDescriptor;
+        this.readMethod = sourceDescriptor.getReadMethod();
+        this.writeMethod = targetDescriptor.getWriteMethod();
+        this.targetType = writeMethod.getGenericParameterTypes()[0];
+        this.assignable = writeMethod.getParameterTypes()[0].isAssignableFrom(readMethod.getReturnType());
+
+        // methods that are not accessible from here, e.g. public methods of a package private class,
+        // are left to Method.invoke, which reports them the same way as before.
+        try {
+            getter = lookup.unreflect(readMethod).asType(GETTER_TYPE);
+            lambdaGetter = Lambda.reflectGetter(lookup, readMethod);
+        } catch (Exception ex) {
+            lambdaGetter = null;
+        }
+
+        try {
+            setter = lookup.unreflect(writeMethod).asType(SETTER_TYPE);
+            lambdaSetter = Lambda.reflectSetter(lookup, writeMethod);
+        } catch (Exception ex) {
+            lambdaSetter = null;
+        }
+    }
+
+    static PropertyCopier[] forClasses(Class sourceClass, Class targetClass) {
+        Map<String, PropertyDescriptor> targetProperties = new HashMap<>();
+        for (PropertyDescriptor prop : Reflection.getBeanInfo(targetClass).getPropertyDescriptors())
+            targetProperties.put(prop.getName(), prop);
+
+        List<PropertyCopier> list = new ArrayList<>();
+        for (PropertyDescriptor prop : Reflection.getBeanInfo(sourceClass).getPropertyDescriptors()) {
+            if (prop.getReadMethod() == null)
+                continue;
+
+            PropertyDescriptor targetDesc = targetProperties.get(prop.getName());
+            if (targetDesc == null || targetDesc.getWriteMethod() == null)
+                continue;
+
+            if (targetDesc.getWriteMethod().getAnnotation(DoNotAccept.class) != null
+                    || (targetDesc.getReadMethod() != null && targetDesc.getReadMethod().getAnnotation(DoNotAccept.class) != null))
+                continue;
+
+            if (prop.getReadMethod().getAnnotation(DoNotCopy.class) != null
+                    || (prop.getWriteMethod() != null && prop.getWriteMethod().getAnnotation(DoNotCopy.class) != null))
+                continue;
+
+            list.add(new PropertyCopier(prop, targetDesc));
+        }
+        return list.toArray(new PropertyCopier[0]);
+    }
+
+    PropertyDescriptor getSourceDescriptor() {
+        return sourceDescriptor;
+    }
+
+    PropertyDescriptor getTargetDescriptor() {
+        return targetDescriptor;
+    }
+
+    Type getTargetType() {
+        return targetType;
+    }
+
+    /**
+     * @return true if the value can be handed to the setter as is, i.e. without conversion.
+     */
+    boolean accepts(Object value) {
+        return assignable && !(value instanceof Collection);
+    }
+
+    Object get(Object source) {
+        try {
+            if (lambdaGetter != null) {
+                try {
+                    return lambdaGetter.apply(source);
+                } catch (NoClassDefFoundError ex) {
+                    // the lambda cannot see classes from another class loader.
+                    lambdaGetter = null;
+                }
+            }
+            if (getter != null)
+                return getter.invokeExact(source);
+            return readMethod.invoke(source);
+        } catch (InvocationTargetException e) {
+            throw new SystemException(e.getTargetException());
+        } catch (Throwable e) {
+            throw new SystemException(e);
+        }
+    }
+
+    void set(Object target, Object value) {
+        try {
+            if (lambdaSetter != null) {
+                try {
+                    lambdaSetter.accept(target, value);
+                    return;
+                } catch (NoClassDefFoundError ex) {
+                    lambdaSetter = null;
+                }
+            }
+            if (setter != null)
+                setter.invokeExact(target, value);
+            else
+                writeMethod.invoke(target, value);
+        } catch (InvocationTargetException e) {
+            throw new SystemException(e.getTargetException());
+        } catch (Throwable e) {
+            throw new SystemException(e);
+        }
+    }
+}
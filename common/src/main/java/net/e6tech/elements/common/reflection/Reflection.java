@@ -157,6 +157,18 @@ public class Reflection {
                 }
             });
 
+    private static LoadingCache<Pair<Class, Class>, PropertyCopier[]> propertyCopiers = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .initialCapacity(100)
+            .concurrencyLevel(Provision.cacheBuilderConcurrencyLevel)
+            .expireAfterWrite(120 * 60 * 1000L, TimeUnit.MILLISECONDS)
+            .build(new CacheLoader<Pair<Class, Class>, PropertyCopier[]>() {
+                @Override
+                public PropertyCopier[] load(Pair<Class, Class> key) {
+                    return PropertyCopier.forClasses(key.key(), key.value());
+                }
+            });
+
     static Logger logger = Logger.getLogger();
 
     private Reflection() {
@@ -516,30 +528,28 @@ public class Reflection {
     }
 
     public static class Replicator {
-        private Map<Class, Map<String, PropertyDescriptor>> targetPropertiesDescriptor = new HashMap<>();
         private Map<Class, PropertyDescriptor[]> propertyDescriptors = new HashMap<>();
 
-        private synchronized Map<String, PropertyDescriptor> getTargetProperties(Class cls) {
-            return targetPropertiesDescriptor.computeIfAbsent(cls, key -> {
-                HashMap<String, PropertyDescriptor> descriptors = new HashMap<>();
-                PropertyDescriptor[] props = getBeanInfo(key).getPropertyDescriptors();
-                for (PropertyDescriptor prop : props) {
-                    descriptors.put(prop.getName(), prop);
-                }
-                return descriptors;
-            });
-        }
-
         private synchronized PropertyDescriptor[] getPropertyDescriptors(Class cls) {
             return propertyDescriptors.computeIfAbsent(cls, key -> getBeanInfo(key).getPropertyDescriptors());
         }
 
-        public synchronized Map<Class, Map<String, PropertyDescriptor>> getTargetPropertiesDescriptor() {
-            return targetPropertiesDescriptor;
+        /**
+         * @deprecated copies no longer use this map; properties are looked up once per pair of classes in a shared cache.
+         * @return a new, empty map
+         */
+        @Deprecated
+        public Map<Class, Map<String, PropertyDescriptor>> getTargetPropertiesDescriptor() {
+            return new HashMap<>();
         }
 
-        public synchronized void setTargetPropertiesDescriptor(Map<Class, Map<String, PropertyDescriptor>> targetPropertiesDescriptor) {
-            this.targetPropertiesDescriptor = targetPropertiesDescriptor;
+        /**
+         * @deprecated copies no longer use this map; the argument is ignored.
+         * @param targetPropertiesDescriptor ignored
+         */
+        @Deprecated
+        @SuppressWarnings("squid:S1186")
+        public void setTargetPropertiesDescriptor(Map<Class, Map<String, PropertyDescriptor>> targetPropertiesDescriptor) {
         }
 
         public synchronized Map<Class, PropertyDescriptor[]> getPropertyDescriptors() {
@@ -645,7 +655,6 @@ public class Reflection {
             return collection;
         }
 
-        @SuppressWarnings("all")
         protected Object convertBuiltinType(Class type, Object object) {
             if (String.class.isAssignableFrom(type)) {
                 return object.toString();
@@ -655,17 +664,17 @@ public class Reflection {
                 return null;
 
             if (type == Boolean.TYPE || type == Boolean.class)
-                return new Boolean(object.toString());
+                return Boolean.valueOf(object.toString());
             else if (type == Double.TYPE || type == Double.class) {
-                return new Double(object.toString());
+                return Double.valueOf(object.toString());
             } else if (type == Float.TYPE || type == Float.class) {
-                return new Float(object.toString());
+                return Float.valueOf(object.toString());
             } else if (type == Integer.TYPE || type == Integer.class) {
-                return new Integer(object.toString());
+                return Integer.valueOf(object.toString());
             } else if (type == Long.TYPE || type == Long.class) {
-                return new Long(object.toString());
+                return Long.valueOf(object.toString());
             } else if (type == Short.TYPE || type == Short.class) {
-                return new Short(object.toString());
+                return Short.valueOf(object.toString());
             } else if (type == BigDecimal.class) {
                 return new BigDecimal(object.toString());
             } else if (type == BigInteger.class) {
@@ -682,62 +691,36 @@ public class Reflection {
             copy(target, object, new HashMap<>(), null);
         }
 
-        @SuppressWarnings("squid:S135")
         private void copy(Object target, Object object, Map<Integer, Object> seen, CopyListener copyListener) {
             if (target == null || object == null)
                 return;
 
-            for (PropertyDescriptor prop : getPropertyDescriptors(object.getClass())) {
-                if (prop.getReadMethod() != null) {
-                    PropertyDescriptor targetDesc = getTargetProperties(target.getClass()).get(prop.getName());
-                    if (targetDesc == null)
-                        continue;
-
-                    Method setter = targetDesc.getWriteMethod();
-                    if (setter == null)
-                        continue;
-
-                    if (setter.getAnnotation(DoNotAccept.class) != null) {
-                        continue;
-                    }
+            PropertyCopier[] copiers;
+            try {
+                copiers = propertyCopiers.get(new Pair<>(object.getClass(), target.getClass()));
+            } catch (ExecutionException e) {
+                throw new SystemException(e.getCause());
+            }
 
-                    Method getter = targetDesc.getReadMethod();
-                    if (getter != null && getter.getAnnotation(DoNotAccept.class) != null) {
+            for (PropertyCopier copier : copiers) {
+                try {
+                    if (copyListener != null && copyListener.copy(target, copier.getTargetDescriptor(), object, copier.getSourceDescriptor()))
                         continue;
-                    }
+                } catch (PropertyVetoException ex) {
+                    Logger.suppress(ex);
+                    continue;
+                }
 
+                Object value = copier.get(object);
+                if (copier.accepts(value)) {
+                    copier.set(target, value);
+                } else {
                     try {
-                        boolean annotated = (prop.getReadMethod().getAnnotation(DoNotCopy.class) != null);
-                        if (!annotated && prop.getWriteMethod() != null) {
-                            annotated = (prop.getWriteMethod().getAnnotation(DoNotCopy.class) != null);
-                        }
-                        if (!annotated) {
-                            try {
-                                boolean handled = false;
-                                if (copyListener != null) {
-                                    handled = copyListener.copy(target, targetDesc, object, prop);
-                                }
-                                if (!handled) {
-                                    Object value = prop.getReadMethod().invoke(object);
-
-                                    if (!(value instanceof Collection) &&
-                                            setter.getParameterTypes()[0].isAssignableFrom(prop.getReadMethod().getReturnType())) {
-                                        setter.invoke(target, value);
-                                    } else {
-                                        try {
-                                            Object converted = newInstance(setter.getGenericParameterTypes()[0], value, seen, copyListener);
-                                            setter.invoke(target, converted);
-                                        } catch (Exception ex) {
-                                            logger.warn("Error copying " + value + " to " + setter.getDeclaringClass() + "::" + setter.getName(), ex);
-                                        }
-                                    }
-                                }
-                            } catch (PropertyVetoException ex) {
-                                Logger.suppress(ex);
-                            }
-                        }
-                    } catch (Exception e) {
-                        throw new SystemException(e);
+                        Object converted = newInstance(copier.getTargetType(), value, seen, copyListener);
+                        copier.set(target, converted);
+                    } catch (Exception ex) {
+                        Method setter = copier.getTargetDescriptor().getWriteMethod();
+                        logger.warn("Error copying " + value + " to " + setter.getDeclaringClass() + "::" + setter.getName(), ex);
                     }
                 }
             }
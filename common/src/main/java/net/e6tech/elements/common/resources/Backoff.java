@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.e6tech.elements.common.resources;
+
+/**
+ * Determines how long Retry waits before an attempt.
+ */
+@FunctionalInterface
+public interface Backoff {
+
+    /**
+     * Retries immediately, which is what Retry has always done.
+     */
+    Backoff NONE = attempt -> 0L;
+
+    /**
+     * @param attempt the retry attempt, starting from 1.
+     * @return delay in milliseconds.
+     */
+    long delay(int attempt);
+}
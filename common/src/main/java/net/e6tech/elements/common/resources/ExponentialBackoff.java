@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.e6tech.elements.common.resources;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff capped at maxDelay.  With jitter turned on (the default), the delay is drawn
+ * uniformly between 0 and the capped value (full jitter) so that retries from concurrent failures
+ * are spread out instead of hitting the database at the same time.
+ */
+public class ExponentialBackoff implements Backoff {
+    private long initialDelay = 50L;
+    private long maxDelay = 2000L;
+    private double multiplier = 2.0;
+    private boolean jitter = true;
+
+    public ExponentialBackoff() {
+    }
+
+    public ExponentialBackoff(long initialDelay, long maxDelay) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public boolean isJitter() {
+        return jitter;
+    }
+
+    public void setJitter(boolean jitter) {
+        this.jitter = jitter;
+    }
+
+    @Override
+    public long delay(int attempt) {
+        double exp = initialDelay * Math.pow(multiplier, Math.max(0, attempt - 1));
+        long cap = (long) Math.min(maxDelay, exp);
+        if (cap <= 0)
+            return 0L;
+        return jitter ? ThreadLocalRandom.current().nextLong(cap + 1) : cap;
+    }
+}
@@ -24,6 +24,7 @@ import net.e6tech.elements.common.logging.TimedLogger;
 import net.e6tech.elements.common.notification.NotificationCenter;
 import net.e6tech.elements.common.notification.NotificationListener;
 import net.e6tech.elements.common.notification.ShutdownNotification;
+import net.e6tech.elements.common.reflection.Reflection;
 import net.e6tech.elements.common.resources.plugin.PluginManager;
 import net.e6tech.elements.common.script.AbstractScriptShell;
 import net.e6tech.elements.common.util.SystemException;
@@ -34,6 +35,9 @@ import javax.script.ScriptException;
 import java.beans.PropertyDescriptor;
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -58,7 +62,9 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
     private String name;
     private Injector injector;
     private Module module = ModuleFactory.getInstance().create();
-    private List<ResourceProvider> resourceProviders = new LinkedList<>();
+    private static final ResourceProvider[] NO_PROVIDERS = new ResourceProvider[0];
+    private volatile ResourceProvider[] resourceProviders = NO_PROVIDERS; // copy on write, read without locking in open
+    private final Object providerLock = new Object();
     private AllocationMonitor allocation = new AllocationMonitor();
 
     private Map<String, Atom> atoms = new LinkedHashMap<>();
@@ -68,6 +74,12 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
     private List<ResourceManagerListener> listeners = new LinkedList<>();
     private Map<Class, ClassInjectionInfo> injections = new ConcurrentHashMap<>(); // a cache to be used by Resources.
     private boolean silent = false;
+    private RetryBudget retryBudget;  // null means retries are not rate limited
+    private boolean recycleResources = false;
+    private int recycleCapacity = 4;
+    private final ThreadLocal<Deque<Resources>> recycled = ThreadLocal.withInitial(ArrayDeque::new);
+    private boolean leakDetection = false;
+    private long leakTimeout = 10000L;
 
     public ResourceManager() {
         this(new Properties());
@@ -102,6 +114,57 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
         return resourceManagers.get(name);
     }
 
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    public boolean isRecycleResources() {
+        return recycleResources;
+    }
+
+    /**
+     * When turned on, Resources committed or aborted through a UnitOfWork are reset and kept in a small
+     * per-thread cache for the next open.  A Resources must not be used after it is closed.  Only plain
+     * Resources are recycled; subclasses supplied by Provision.getResourcesClass are always created anew.
+     * onClosed runs before a Resources is recycled, so a ResourceProvider that left work referring to the unit
+     * of work on another thread, e.g., EntityManagerMonitor, must cancel it there.
+     */
+    public void setRecycleResources(boolean recycleResources) {
+        this.recycleResources = recycleResources;
+    }
+
+    public int getRecycleCapacity() {
+        return recycleCapacity;
+    }
+
+    public void setRecycleCapacity(int recycleCapacity) {
+        this.recycleCapacity = recycleCapacity;
+    }
+
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /**
+     * When turned on, a warning with the stack trace of the open call is logged for a Resources
+     * that is neither committed nor aborted within leakTimeout milliseconds.
+     */
+    public void setLeakDetection(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+    }
+
+    public long getLeakTimeout() {
+        return leakTimeout;
+    }
+
+    public void setLeakTimeout(long leakTimeout) {
+        this.leakTimeout = leakTimeout;
+    }
+
     public boolean isSilent() {
         return silent;
     }
@@ -662,13 +725,9 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
             preOpen.accept(resources);  // before resourceProviders in order to set configuration
         }
 
-        List<ResourceProvider> list = new LinkedList<>();
-        synchronized (resourceProviders) {
-            list.addAll(resourceProviders);
-        }
-
-        List<ResourceProvider> openList = new LinkedList<>();
-        for (ResourceProvider p : list) {
+        ResourceProvider[] providers = resourceProviders;
+        List<ResourceProvider> openList = new ArrayList<>(providers.length);
+        for (ResourceProvider p : providers) {
             try {
                 p.onOpen(resources);
                 openList.add(p);
@@ -686,33 +745,34 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
         resources.setExternalResourceProviders(openList);
         resources.onOpen();
 
-        /** uncomment the following to detect resources leak
-        long timeout = 10000;
-        if (resources.getConfiguration(Resources.TIMEOUT) != null)
-            timeout = resources.getConfiguration(Resources.TIMEOUT);
-
-        if (resources.getConfiguration(Resources.TIMEOUT_EXTENSION) != null) {
-            timeout += (Long) resources.getConfiguration(Resources.TIMEOUT_EXTENSION);
+        if (leakDetection) {
+            Throwable throwable = new Throwable("Resources opened at");
+            resources.setLeakMonitor(allocation.monitorLeak(leakTimeout, resources,
+                    () -> logger.warn("Potential Resources leak.", throwable)));
         }
-        Throwable throwable = new Throwable();
-        throwable.setStackTrace(Reflection.getCallingStackTrace());
-        allocation.monitor(timeout, resources, () -> {
-                logger.warn("Potential Resources leak.", throwable);
-        });
-         */
 
         return resources;
     }
 
     public void addResourceProvider(ResourceProvider p) {
         inject(p);
-        synchronized (resourceProviders) {
-            resourceProviders.add(p);
+        synchronized (providerLock) {
+            ResourceProvider[] providers = Arrays.copyOf(resourceProviders, resourceProviders.length + 1);
+            providers[providers.length - 1] = p;
+            resourceProviders = providers;
         }
         listeners.forEach(l -> l.resourceProviderAdded(p));
     }
 
     public <T extends Resources> T newResources() {
+        if (recycleResources) {
+            Resources resources = recycled.get().poll();
+            if (resources != null) {
+                resources.reuse();
+                return inject((T) resources);
+            }
+        }
+
         Provision provision = getInstance(Provision.class);
         Class clazz = provision.getResourcesClass();
         try {
@@ -725,6 +785,20 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
         }
     }
 
+    /**
+     * Returns a closed Resources to the calling thread's cache if recycling is turned on.
+     * @return true if resources is recycled, in which case the caller must not use it anymore.
+     */
+    public boolean recycle(Resources resources) {
+        if (!recycleResources || resources == null || resources.getResourceManager() != this)
+            return false;
+        Deque<Resources> deque = recycled.get();
+        if (deque.size() >= recycleCapacity || !resources.recycle())
+            return false;
+        deque.push(resources);
+        return true;
+    }
+
     public void shutdown() {
         ShutdownNotification notification = new ShutdownNotification(this);
         getNotificationCenter().getNotificationListeners(notification)
@@ -736,10 +810,7 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
                         logger.info("{} is down.", listener.getDescription());
                 });
 
-        List<ResourceProvider> reversed = new ArrayList<>();
-        synchronized (resourceProviders) {
-            reversed.addAll(resourceProviders);
-        }
+        List<ResourceProvider> reversed = new ArrayList<>(Arrays.asList(resourceProviders));
         Collections.reverse(reversed);
         reversed.forEach(rp -> {
             if (!silent)
@@ -764,29 +835,72 @@ public class ResourceManager extends AbstractScriptShell implements ResourcePool
         return injections;
     }
 
+    /**
+     * Injection plan for a class: pre-bound getters of the fields and properties whose values
+     * need to be injected as well.  Computed once per class and cached in injections.
+     */
     static class ClassInjectionInfo {
-        private static final List emptyList = Collections.unmodifiableList(new ArrayList<>());
-        private List<Field> injectableFields = emptyList;
-        private List<PropertyDescriptor> injectableProperties = emptyList;
+        private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodHandle[] EMPTY = new MethodHandle[0];
+        private MethodHandle[] injectables = EMPTY;
+
+        ClassInjectionInfo(Class objectClass) {
+            Package p = objectClass.getPackage();
+            if (p != null
+                    && (p.getName().startsWith("java.")
+                    || p.getName().startsWith("javax.")))
+                return;
+
+            List<MethodHandle> list = new ArrayList<>();
+            Class cls = objectClass;
+            while (cls != null && !cls.equals(Object.class)) {
+                for (Field f : cls.getDeclaredFields()) {
+                    if (f.getAnnotation(Injectable.class) != null
+                            || f.getType().getAnnotation(Injectable.class) != null) {
+                        f.setAccessible(true);
+                        try {
+                            list.add(lookup.unreflectGetter(f).asType(GETTER_TYPE));
+                        } catch (IllegalAccessException e) {
+                            throw new SystemException(e);
+                        }
+                    }
+                }
+                cls = cls.getSuperclass();
+            }
 
-        void addInjectableField(Field field) {
-            if (injectableFields == emptyList)
-                injectableFields = new ArrayList<>();
-            injectableFields.add(field);
+            for (PropertyDescriptor prop : Reflection.getBeanInfo(objectClass).getPropertyDescriptors()) {
+                Method getter = prop.getReadMethod();
+                if (getter != null
+                        && (prop.getPropertyType().getAnnotation(Injectable.class) != null
+                        || getter.getAnnotation(Injectable.class) != null
+                        || (prop.getWriteMethod() != null && prop.getWriteMethod().getAnnotation(Injectable.class) != null))) {
+                    try {
+                        list.add(lookup.unreflect(getter).asType(GETTER_TYPE));
+                    } catch (IllegalAccessException e) {
+                        throw new SystemException(e);
+                    }
+                }
+            }
+
+            if (!list.isEmpty())
+                injectables = list.toArray(EMPTY);
         }
 
-        List<Field> getInjectableFields() {
-            return injectableFields;
+        boolean hasInjectables() {
+            return injectables.length > 0;
         }
 
-        void addInjectableProperty(PropertyDescriptor desc) {
-            if (injectableProperties == emptyList)
-                injectableProperties = new ArrayList<>();
-            injectableProperties.add(desc);
+        int injectableCount() {
+            return injectables.length;
         }
 
-        List<PropertyDescriptor> getInjectableProperties() {
-            return injectableProperties;
+        Object getInjectable(int index, Object object) {
+            try {
+                return injectables[index].invokeExact(object);
+            } catch (Throwable e) {
+                throw new SystemException(e);
+            }
         }
     }
 }
@@ -29,10 +29,7 @@ import net.e6tech.elements.common.util.SystemException;
 import net.e6tech.elements.common.util.function.ConsumerWithException;
 import net.e6tech.elements.common.util.function.FunctionWithException;
 
-import java.beans.BeanInfo;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.ref.Reference;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
@@ -46,6 +43,11 @@ import java.util.function.Supplier;
  * instances, really the only needed injected resource is the Resources instance and
  * resources provided by ResourceProviders.
  *
+ * A Resources is opened, used and closed by one thread at a time, normally the one that opened it,
+ * the same way submit keeps its nesting in a thread local.  Its methods take no monitor and its
+ * variables are kept in plain maps, so code that runs on another thread while it is open, e.g.,
+ * EntityManagerMonitor, must capture what it needs at open instead of reading it from the Resources.
+ * A Resources handed to another thread must be published safely, e.g., through an Executor.
  *
  * Created by futeh.
  */
@@ -53,25 +55,26 @@ import java.util.function.Supplier;
 @SuppressWarnings({"unchecked", "squid:S1141", "squid:S134", "squid:S1602", "squid:S00100", "squid:MethodCyclomaticComplexity"})
 public class Resources implements AutoCloseable, ResourcePool {
 
-    private static ThreadLocal<Deque<Resources>> activeResources = new ThreadLocal<>();
+    // kept for the life of the thread rather than removed when empty, so that submit does not allocate a deque each time.
+    private static ThreadLocal<Deque<Resources>> activeResources = ThreadLocal.withInitial(ArrayDeque::new);
 
     private static Logger logger = Logger.getLogger(Resources.class);
     private static final String ABORT_DUE_TO_EXCEPTION = "Aborting due to exception";
     private ResourceManager resourceManager;
     private Retry retry;
-    protected ResourcesState state;
+    protected volatile ResourcesState state;
     protected Configurator configurator = new Configurator();
     private Configurator initialConfigurator;
     private Consumer<? extends Resources> preOpen;
-    private List<Replay<? extends Resources, ?, ? extends Exception>> replays = new LinkedList<>();
+    private List<Replay<? extends Resources, ?, ? extends Exception>> replays = new ArrayList<>();
     private Object lastResult;
     private Throwable lastException;
     private boolean submitting = false;
+    private Reference<?> leakMonitor;
+    private boolean recycled = false;
 
     public static Resources parent(Resources current) {
         Deque<Resources> deque = activeResources.get();
-        if (deque == null)
-            return null;
         Iterator<Resources> iterator = deque.iterator();
         while (iterator.hasNext()) {
             Resources r = iterator.next();
@@ -84,8 +87,6 @@ public class Resources implements AutoCloseable, ResourcePool {
 
     public static Iterator<Resources> parents(Resources current) {
         Deque<Resources> deque = activeResources.get();
-        if (deque == null)
-            return null;
         Iterator<Resources> iterator = deque.iterator();
         while (iterator.hasNext()) {
             Resources r = iterator.next();
@@ -140,23 +141,24 @@ public class Resources implements AutoCloseable, ResourcePool {
         this.preOpen = preOpen;
     }
 
-    public synchronized boolean isCommitted() {
+    // state is volatile so that a thread other than the owner can still query the lifecycle.
+    public boolean isCommitted() {
         return state.getState() == ResourcesState.State.COMMITTED;
     }
 
-    public synchronized boolean isOpen() {
+    public boolean isOpen() {
         return state.getState() == ResourcesState.State.OPEN;
     }
 
-    public synchronized boolean isAborted() {
+    public boolean isAborted() {
         return state.getState() == ResourcesState.State.ABORTED;
     }
 
-    public synchronized boolean isClosed() {
+    public boolean isClosed() {
         return !isOpen();
     }
 
-    public synchronized boolean isDiscarded() {
+    public boolean isDiscarded() {
         return resourceManager == null;
     }
 
@@ -172,7 +174,7 @@ public class Resources implements AutoCloseable, ResourcePool {
         return state.getResourceProviders();
     }
 
-    public synchronized Resources addResourceProvider(ResourceProvider resourceProvider) {
+    public Resources addResourceProvider(ResourceProvider resourceProvider) {
         getResourceProviders().add(resourceProvider);
         if (isOpen()) {
             resourceProvider.onOpen(this);
@@ -193,85 +195,85 @@ public class Resources implements AutoCloseable, ResourcePool {
         return this;
     }
 
-    public synchronized Resources onCommit(OnCommit onCommit) {
+    public Resources onCommit(OnCommit onCommit) {
         addResourceProvider(onCommit);
         return this;
     }
 
-    public synchronized Resources onCommit(Runnable runnable) {
+    public Resources onCommit(Runnable runnable) {
         OnCommit on = res -> runnable.run();
         onCommit(on);
         return this;
     }
 
-    public synchronized Resources afterCommit(AfterCommit afterCommit) {
+    public Resources afterCommit(AfterCommit afterCommit) {
         addResourceProvider(afterCommit);
         return this;
     }
 
-    public synchronized Resources afterCommit(Runnable runnable) {
+    public Resources afterCommit(Runnable runnable) {
         AfterCommit after = res -> runnable.run();
         afterCommit(after);
         return this;
     }
 
-    public synchronized Resources onCommitOrAbort(Runnable runnable) {
+    public Resources onCommitOrAbort(Runnable runnable) {
         onCommit(runnable);
         onAbort(runnable);
         return this;
     }
 
-    public synchronized Resources onOpen(OnOpen onOpen) {
+    public Resources onOpen(OnOpen onOpen) {
         addResourceProvider(onOpen);
         return this;
     }
 
-    public synchronized Resources onOpen(Runnable runnable) {
+    public Resources onOpen(Runnable runnable) {
         OnOpen on = res -> runnable.run();
         onOpen(on);
         return this;
     }
 
-    public synchronized Resources onAbort(OnAbort onAbort) {
+    public Resources onAbort(OnAbort onAbort) {
         addResourceProvider(onAbort);
         return this;
     }
 
-    public synchronized Resources onAbort(Runnable runnable) {
+    public Resources onAbort(Runnable runnable) {
         OnAbort on = res -> runnable.run();
         onAbort(on);
         return this;
     }
 
-    public synchronized Resources afterAbort(AfterAbort afterAbort) {
+    public Resources afterAbort(AfterAbort afterAbort) {
         addResourceProvider(afterAbort);
         return this;
     }
 
-    public synchronized Resources afterAbort(Runnable runnable) {
+    public Resources afterAbort(Runnable runnable) {
         AfterAbort after = res -> runnable.run();
         afterAbort(after);
         return this;
     }
 
-    public synchronized Resources afterCommitOrAbort(Runnable runnable) {
+    public Resources afterCommitOrAbort(Runnable runnable) {
         afterCommit(runnable);
         afterAbort(runnable);
         return this;
     }
 
-    public synchronized Resources onClosed(OnClosed onClosed) {
+    public Resources onClosed(OnClosed onClosed) {
         addResourceProvider(onClosed);
         return this;
     }
 
-    public synchronized Resources onClosed(Runnable runnable) {
+    public Resources onClosed(Runnable runnable) {
         OnClosed on = res -> runnable.run();
         onClosed(on);
         return this;
     }
 
-    public synchronized boolean remove(ResourceProvider provider) {
+    public boolean remove(ResourceProvider provider) {
         return getResourceProviders().remove(provider);
     }
 
@@ -385,81 +387,35 @@ public class Resources implements AutoCloseable, ResourcePool {
     }
 
     public <T> T inject(T object, boolean strict) {
-        return inject(object, strict, new HashSet<>());
+        return inject(object, strict, null);
     }
 
-    @SuppressWarnings("squid:S3776")
-    private <T> T inject(T object, boolean strict, Set<Integer> seen) {
+    /**
+     * Injects object and then any injectable objects reachable from it.  seen is created only when
+     * there is something to recurse into.  It is an identity set because the object
+     * may not be initialized fully to compute hashCode.
+     */
+    private <T> T inject(T object, boolean strict, Set<Object> seen) {
         if (object == null)
             return null;
-        // the commented out line indicates that we cannot use seen.contains(object)
-        // because it is being injected and its hashCode may not be ready to be computed
-        // so that the object should not be added to seen.
-        // commented out line -- if seen.contains(System.identityHashCode(object)) && seen.contains(object)
-        // as a compromise, we use identifyHashCode
-        if (seen.contains(System.identityHashCode(object)))
+        if (seen != null && seen.contains(object))
             return object;  // already been injected.
         T injected = state.inject(this, object, strict);
-        seen.add(System.identityHashCode(object));
-        // seen.add(object);  object may not be initialized fully to compute hashCode.
-
-        ResourceManager.ClassInjectionInfo info = resourceManager.getInjections().get(object.getClass());
-
-        if (info == null) {
-            info = new ResourceManager.ClassInjectionInfo();
-            Class cls = object.getClass();
-            Package p = cls.getPackage();
-            if (p == null
-                    || (!p.getName().startsWith("java.")
-                    && !p.getName().startsWith("javax."))) {
-                while (cls != null && !cls.equals(Object.class)) {
-                    for (Field f : cls.getDeclaredFields()) {
-                        if (f.getAnnotation(Injectable.class) != null
-                                || f.getType().getAnnotation(Injectable.class) != null) {
-                            f.setAccessible(true);
-                            info.addInjectableField(f);
-                        }
-                    }
-                    cls = cls.getSuperclass();
-                }
 
-                BeanInfo beanInfo = Reflection.getBeanInfo(object.getClass());
-                for (PropertyDescriptor prop : beanInfo.getPropertyDescriptors()) {
-                    if (prop.getReadMethod() != null) {
-                        boolean hasAnnotation = prop.getPropertyType().getAnnotation(Injectable.class) != null;
-                        if (!hasAnnotation)
-                            hasAnnotation = prop.getReadMethod() != null && prop.getReadMethod().getAnnotation(Injectable.class) != null;
-                        if (!hasAnnotation)
-                            hasAnnotation = prop.getWriteMethod() != null && prop.getWriteMethod().getAnnotation(Injectable.class) != null;
-
-                        if (hasAnnotation)
-                            info.addInjectableProperty(prop);
-                    }
-                }
-            }
-            resourceManager.getInjections().put(object.getClass(), info);
+        ResourceManager.ClassInjectionInfo info = resourceManager.getInjections()
+                .computeIfAbsent(object.getClass(), ResourceManager.ClassInjectionInfo::new);
+        if (!info.hasInjectables()) {
+            if (seen != null)
+                seen.add(object);
+            return injected;
         }
 
-        for (Field f : info.getInjectableFields()) {
-            try {
-                Object injectField = f.get(object);
-                if (injectField != null) {
-                    inject(injectField, strict, seen);
-                }
-            } catch (IllegalAccessException e) {
-                throw new SystemException(e);
-            }
-        }
-
-        for (PropertyDescriptor d : info.getInjectableProperties()) {
-            try {
-                Object injectProp = d.getReadMethod().invoke(object);
-                if (injectProp != null) {
-                    inject(injectProp, strict, seen);
-                }
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new SystemException(e);
-            }
+        Set<Object> visited = (seen != null) ? seen : Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.add(object);
+        for (int i = 0; i < info.injectableCount(); i++) {
+            Object injectable = info.getInjectable(i, object);
+            if (injectable != null)
+                inject(injectable, strict, visited);
         }
         return injected;
     }
@@ -497,7 +453,7 @@ public class Resources implements AutoCloseable, ResourcePool {
         return this;
     }
 
-    public synchronized Resources onOpen() {
+    public Resources onOpen() {
         // state.initModules(this); // MUST initialize injector first by calling initModules
         if (!isOpen()) {
             state.setState(ResourcesState.State.OPEN);
@@ -548,7 +504,7 @@ public class Resources implements AutoCloseable, ResourcePool {
             throw new SystemException(th);
         }
         try {
-            return retry.retry(th, () -> {
+            return retry.retry(th, resourceManager.getRetryBudget(), () -> {
                 StringBuilder builder = new StringBuilder();
                 builder.append("Resources retrying due to error: ")
                         .append(ExceptionMapper.unwrap(th).getClass())
@@ -586,11 +542,11 @@ public class Resources implements AutoCloseable, ResourcePool {
 
     // return null because we want this type of work to be stateless outside of
     // Resources.
-    public synchronized <R extends Resources, E extends Exception> void submit(ConsumerWithException<R, E> work) {
+    public <R extends Resources, E extends Exception> void submit(ConsumerWithException<R, E> work) {
         play(new Replay<R, Object, E>(work));
     }
 
-    public synchronized <T extends Resources, R, E extends Exception> R submit(FunctionWithException<T, R, E> work) {
+    public <T extends Resources, R, E extends Exception> R submit(FunctionWithException<T, R, E> work) {
         return play(new Replay<>(work));
     }
 
@@ -605,10 +561,6 @@ public class Resources implements AutoCloseable, ResourcePool {
         Deque<Resources> deque = activeResources.get();
 
         try {
-            if (deque == null) {
-                deque = new LinkedList<>();
-                activeResources.set(deque);
-            }
             deque.push(this);
 
             try {
@@ -627,8 +579,6 @@ public class Resources implements AutoCloseable, ResourcePool {
             }
 
             deque.remove(this);
-            if (deque.isEmpty())
-                activeResources.remove();
         }
         return ret;
     }
@@ -638,7 +588,7 @@ public class Resources implements AutoCloseable, ResourcePool {
         provision.log(logger, level, msg, th);
     }
 
-    public synchronized <R> R commit() {
+    public <R> R commit() {
         R ret = null;
         try {
             ret = _commit();
@@ -692,7 +642,7 @@ public class Resources implements AutoCloseable, ResourcePool {
     }
 
     @SuppressWarnings("squid:S3776")
-    public synchronized Resources abort() {
+    public Resources abort() {
         try {
             if (resourceManager == null)
                 return this;
@@ -757,6 +707,10 @@ public class Resources implements AutoCloseable, ResourcePool {
         } catch (Exception ex) {
             log(LogLevel.TRACE, ex.getMessage(), ex);
         }
+        if (leakMonitor != null) {
+            resourceManager.getAllocationMonitor().cancel(leakMonitor);
+            leakMonitor = null;
+        }
         state.cleanup();
         configurator.clear();
         replays.clear();  // cannot be set to null because during replay abort may be called.
@@ -765,6 +719,34 @@ public class Resources implements AutoCloseable, ResourcePool {
         preOpen = null;
     }
 
+    void setLeakMonitor(Reference<?> leakMonitor) {
+        this.leakMonitor = leakMonitor;
+    }
+
+    boolean isRecycled() {
+        return recycled;
+    }
+
+    /**
+     * Prepares a closed Resources to be handed out again by ResourceManager.  Returns false if it is
+     * still open or has already been recycled.  Subclasses are never recycled since only the state
+     * declared here is reset.
+     */
+    boolean recycle() {
+        if (getClass() != Resources.class || recycled || isOpen())
+            return false;
+        state.reset();
+        getModule().bindInstance(getClass(), this);
+        initialConfigurator = null;
+        lastException = null;
+        recycled = true;
+        return true;
+    }
+
+    void reuse() {
+        recycled = false;
+    }
+
     public <T extends Provision> T provision() {
         return (T) getInstance(Provision.class);
     }
@@ -44,8 +44,8 @@ class ResourcesState {
     private ModuleFactory factory;
     private Module module;
     private Injector injector;
-    private State state = State.INITIAL;
-    private List<ResourceProvider> resourceProviders = new LinkedList<>();
+    private volatile State state = State.INITIAL;
+    private List<ResourceProvider> resourceProviders = new ArrayList<>();
     private LinkedList<Object> injectionList = new LinkedList<>();
     private List<ResourceProvider> externalResourceProviders;
     private Map<String, Object> variables;
@@ -64,6 +64,12 @@ class ResourcesState {
         externalResourceProviders = null;
     }
 
+    // used when Resources is recycled; unlike cleanup, variables do not survive.
+    void reset() {
+        cleanup();
+        variables = null;
+    }
+
     public Module getModule() {
         return module;
     }
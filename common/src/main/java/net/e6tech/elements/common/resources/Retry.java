@@ -16,12 +16,19 @@
 
 package net.e6tech.elements.common.resources;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Created by futeh.
  */
 @SuppressWarnings("squid:S00112")
 public abstract class Retry {
     private int limit = 3;
+    private Backoff backoff = Backoff.NONE;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder denied = new LongAdder();
 
     public int getLimit() {
         return limit;
@@ -31,25 +38,82 @@ public abstract class Retry {
         this.limit = limit;
     }
 
+    public Backoff getBackoff() {
+        return backoff;
+    }
+
+    public void setBackoff(Backoff backoff) {
+        this.backoff = (backoff == null) ? Backoff.NONE : backoff;
+    }
+
+    /**
+     * @return number of retry attempts made.
+     */
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    /**
+     * @return number of calls that succeeded after at least one retry.
+     */
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    /**
+     * @return number of calls that failed with a retryable error because the limit was reached
+     * or the wait was interrupted.
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * @return number of calls that failed with a retryable error because the budget had no token.
+     */
+    public long getDenied() {
+        return denied.sum();
+    }
+
     public abstract boolean shouldRetry(Throwable th);
 
     public <R> R retry(Retryable<R> call) throws Throwable {
-        return privateRetry(null, call);
+        return privateRetry(null, null, call);
     }
 
     public <R> R retry(Throwable exception, Retryable<R> call) throws Throwable {
-        return privateRetry(exception, call);
+        return privateRetry(exception, null, call);
+    }
+
+    /**
+     * @param budget shared by all callers; a retry is only attempted if the budget has a token.
+     *               Null means unlimited.
+     */
+    public <R> R retry(Throwable exception, RetryBudget budget, Retryable<R> call) throws Throwable {
+        return privateRetry(exception, budget, call);
     }
 
-    protected <R> R privateRetry(Throwable exception, Retryable<R> call) throws Throwable {
+    protected <R> R privateRetry(Throwable exception, RetryBudget budget, Retryable<R> call) throws Throwable {
         R ret = null;
         Throwable error = exception;
         boolean success = false;
+        boolean retryable = true;
+        boolean budgetDenied = false;
 
         int count = 0;
-        while ((error == null || shouldRetry(error)) && count < limit) {
+        while (count < limit) {
             if (error != null) {
+                retryable = shouldRetry(error);
+                if (!retryable)
+                    break;
+                if (budget != null && !budget.tryAcquire()) {
+                    budgetDenied = true;
+                    break;
+                }
+                if (!pause(count + 1))
+                    break;
                 count ++;
+                attempts.increment();
             }
             try {
                 ret = call.call();
@@ -60,12 +124,33 @@ public abstract class Retry {
             }
         }
 
-        if (!success && error != null)
+        if (success) {
+            if (count > 0)
+                successes.increment();
+        } else if (error != null) {
+            if (budgetDenied)
+                denied.increment();
+            else if (count >= limit ? shouldRetry(error) : retryable)  // at the limit, the last error is not checked yet
+                exhausted.increment();
             throw error;
+        }
 
         return ret;
     }
 
+    private boolean pause(int attempt) {
+        long delay = backoff.delay(attempt);
+        if (delay <= 0)
+            return true;
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @FunctionalInterface
     public interface Retryable<R> {
         R call() throws Throwable;
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.e6tech.elements.common.resources;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket limiting the rate of retries.  A ResourceManager may be configured with a budget
+ * so that, when many units of work fail at once, retries are shed instead of amplifying load.
+ * The bucket holds up to burst tokens and is refilled at permitsPerSecond.
+ * It is implemented as a generic cell rate algorithm so that acquiring does not lock.
+ */
+public class RetryBudget {
+    private double permitsPerSecond = 10;
+    private int burst = 10;
+    private volatile long interval = computeInterval(permitsPerSecond);
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private final LongAdder rejected = new LongAdder();
+
+    public RetryBudget() {
+    }
+
+    public RetryBudget(double permitsPerSecond, int burst) {
+        setPermitsPerSecond(permitsPerSecond);
+        setBurst(burst);
+    }
+
+    private static long computeInterval(double permitsPerSecond) {
+        if (permitsPerSecond <= 0)
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        return (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        this.interval = computeInterval(permitsPerSecond);
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        if (burst < 1)
+            throw new IllegalArgumentException("burst must be at least 1");
+        this.burst = burst;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return true if a retry may proceed; false if the budget is used up.
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        long step = interval;
+        long limit = step * burst;
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - now > 0 ? arrival : now) + step;
+            if (next - now > limit) {
+                rejected.increment();
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next))
+                return true;
+        }
+    }
+}
@@ -29,6 +29,13 @@ public interface Transactional {
 
     <T extends Resources> T open();
 
+    /**
+     * Called by the methods below once resources they opened has been committed.
+     * UnitOfWork uses it to recycle resources.
+     */
+    default void release(Resources resources) {
+    }
+
     default <R> R apply(Callable<R> callable) {
         return commit(callable);
     }
@@ -42,7 +49,9 @@ public interface Transactional {
         resources.submit(r -> {
             return callable.call();
         });
-        return resources.commit();
+        R ret = resources.commit();
+        release(resources);
+        return ret;
     }
 
     default void run(RunnableWithException runnable) {
@@ -59,6 +68,7 @@ public interface Transactional {
             runnable.run();
         });
         resources.commit();
+        release(resources);
     }
 
     default <T, R, E extends Exception> R apply(Class<T> cls, FunctionWithException<T, R, E> function) {
@@ -70,7 +80,9 @@ public interface Transactional {
         resources.submit(r -> {
             return function.apply(r.getInstance(cls));
         });
-        return resources.commit();
+        R ret = resources.commit();
+        release(resources);
+        return ret;
     }
 
     default <T, E extends Exception> void accept(Class<T> cls, ConsumerWithException<T, E> consumer) {
@@ -83,6 +95,7 @@ public interface Transactional {
             consumer.accept(r.getInstance(cls));
         });
         resources.commit();
+        release(resources);
     }
 
     default <S, T, R, E extends Exception> R apply(Class<S> cls, Class<T> cls2, BiFunctionWithException<S, T, R, E> function) {
@@ -94,7 +107,9 @@ public interface Transactional {
         resources.submit(r -> {
             return function.apply(r.getInstance(cls), r.getInstance(cls2));
         });
-        return resources.commit();
+        R ret = resources.commit();
+        release(resources);
+        return ret;
     }
 
     default <S, T, E extends Exception> void accept(Class<S> cls, Class<T> cls2, BiConsumerWithException<S, T, E> consumer) {
@@ -107,6 +122,7 @@ public interface Transactional {
             consumer.accept(r.getInstance(cls), r.getInstance(cls2));
         });
         resources.commit();
+        release(resources);
     }
 
     default <S, T, U, R, E extends Exception> R apply(Class<S> cls, Class<T> cls2, Class<U> cls3, TriFunctionWithException<S, T, U, R, E> function) {
@@ -118,7 +134,9 @@ public interface Transactional {
         resources.submit(r -> {
             return function.apply(r.getInstance(cls), r.getInstance(cls2), r.getInstance(cls3));
         });
-        return resources.commit();
+        R ret = resources.commit();
+        release(resources);
+        return ret;
     }
 
     default <S, T, U, E extends Exception> void accept(Class<S> cls, Class<T> cls2, Class<U> cls3, TriConsumerWithException<S, T, U, E> consumer) {
@@ -131,6 +149,7 @@ public interface Transactional {
             consumer.accept(r.getInstance(cls), r.getInstance(cls2), r.getInstance(cls3));
         });
         resources.commit();
+        release(resources);
     }
 
     default <E extends Exception> void accept(Class[] classes, ConsumerWithException<Object[], E> consumer) {
@@ -148,6 +167,7 @@ public interface Transactional {
             consumer.accept(arguments);
         });
         resources.commit();
+        release(resources);
     }
 
     default <R, E extends Exception> void apply(Class[] classes, FunctionWithException<Object[], R, E> function) {
@@ -164,7 +184,9 @@ public interface Transactional {
             }
             return function.apply(arguments);
         });
-        return resources.commit();
+        R ret = resources.commit();
+        release(resources);
+        return ret;
     }
 
 }
@@ -79,6 +79,7 @@ public class UnitOfWork implements Transactional, Configurable<UnitOfWork> {
         if (resources == null || !resources.isOpen())
             throw new IllegalStateException("Resources not opened");
         resources.commit();
+        resourceManager.recycle(resources);
         cleanup();
     }
 
@@ -86,9 +87,16 @@ public class UnitOfWork implements Transactional, Configurable<UnitOfWork> {
         if (resources == null || !resources.isOpen())
             return;
         resources.abort();
+        resourceManager.recycle(resources);
         cleanup();
     }
 
+    @Override
+    public void release(Resources res) {
+        if (res == resources && resourceManager.recycle(res))
+            cleanup();
+    }
+
     protected void cleanup() {
         resourceProviders.clear();
         resources = null;
@@ -17,36 +17,62 @@
 package net.e6tech.elements.common.subscribe;
 
 import net.e6tech.elements.common.logging.Logger;
+import net.e6tech.elements.common.util.concurrent.SerialMailbox;
+import net.e6tech.elements.common.util.concurrent.ThreadPool;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 /**
  * Created by futeh.
+ *
+ * Each topic holds a snapshot array of subscribers that is replaced on subscribe and unsubscribe, so
+ * publishing does not lock or copy.  Every subscriber has a mailbox; publishing queues the notice in the
+ * mailbox of each subscriber and at most one task per subscriber drains it on the thread pool.
  */
 public class DefaultBroadcast implements Broadcast {
+    private static final Mailbox[] EMPTY = new Mailbox[0];
 
     Logger logger = Logger.getLogger();
-    Map<String, List<Subscriber>> subscribers = new HashMap<>();
-    Map<String, List<Subscriber>> copy = new HashMap<>();
+    Map<String, Mailbox[]> subscribers = new ConcurrentHashMap<>();
+    Map<Subscriber, Mailbox> mailboxes = new ConcurrentHashMap<>();
     ExecutorService threadPool;
+    int batchSize = 256;
+
+    public ExecutorService getThreadPool() {
+        if (threadPool == null)
+            threadPool = ThreadPool.cachedThreadPool("DefaultBroadcast");
+        return threadPool;
+    }
 
     public void setThreadPool(ExecutorService threadPool) {
         this.threadPool = threadPool;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize maximum number of notices a drain task delivers before yielding its thread.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     @Override
-    public void subscribe(String topic, Subscriber subscriber) {
-        List<Subscriber> list = subscribers.computeIfAbsent(topic, key -> new LinkedList<Subscriber>());
-        synchronized (list) {
-            list.add(subscriber);
-            List<Subscriber> copyList = new LinkedList<>(list);
-            copy.put(topic, copyList);
-        }
+    public synchronized void subscribe(String topic, Subscriber subscriber) {
+        Mailbox mailbox = mailboxes.computeIfAbsent(subscriber, Mailbox::new);
+        mailbox.topics++;
+        Mailbox[] list = subscribers.getOrDefault(topic, EMPTY);
+        Mailbox[] copy = Arrays.copyOf(list, list.length + 1);
+        copy[list.length] = mailbox;
+        subscribers.put(topic, copy);
     }
 
     @Override
@@ -55,12 +81,23 @@ public class DefaultBroadcast implements Broadcast {
     }
 
     @Override
-    public void unsubscribe(String topic, Subscriber subscriber) {
-        List<Subscriber> list = subscribers.computeIfAbsent(topic, key -> new LinkedList<Subscriber>());
-        synchronized (list) {
-            list.remove(subscriber);
-            List<Subscriber> copyList = new LinkedList<>(list);
-            copy.put(topic, copyList);
+    public synchronized void unsubscribe(String topic, Subscriber subscriber) {
+        Mailbox mailbox = mailboxes.get(subscriber);
+        Mailbox[] list = subscribers.get(topic);
+        if (mailbox == null || list == null)
+            return;
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == mailbox) {
+                Mailbox[] copy = Arrays.copyOf(list, list.length - 1);
+                System.arraycopy(list, i + 1, copy, i, list.length - i - 1);
+                if (copy.length == 0)
+                    subscribers.remove(topic);
+                else
+                    subscribers.put(topic, copy);
+                if (--mailbox.topics == 0)
+                    mailboxes.remove(subscriber);
+                return;
+            }
         }
     }
 
@@ -69,23 +106,14 @@ public class DefaultBroadcast implements Broadcast {
         unsubscribe(topic.getName(), subscriber);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void publish(String topic, Serializable object) {
-        threadPool.execute(()-> {
-            try {
-                Notice notice = new Notice(topic, object);
-                List<Subscriber> list = subscribers.computeIfAbsent(topic, key -> new LinkedList<Subscriber>());
-                synchronized (list) {
-                    list = copy.computeIfAbsent(topic, key -> new LinkedList<Subscriber>());
-                }
-                for (Subscriber subscriber : list) {
-                    subscriber.receive(notice);
-                }
-            } catch (Exception e) {
-                logger.warn(e.getMessage(), e);
-            }
-        });
+        Mailbox[] list = subscribers.get(topic);
+        if (list == null)
+            return;
+        Notice notice = new Notice(topic, object);
+        for (Mailbox mailbox : list)
+            mailbox.post(notice);
     }
 
     @Override
@@ -93,4 +121,37 @@ public class DefaultBroadcast implements Broadcast {
         publish(cls.getName(), object);
     }
 
+    class Mailbox extends SerialMailbox<Notice> {
+        private final Subscriber subscriber;
+        private int topics;  // guarded by DefaultBroadcast.this
+
+        Mailbox(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        protected Executor executor() {
+            return getThreadPool();
+        }
+
+        // gives other mailboxes a turn after batchSize notices.
+        @Override
+        protected int yieldAfter() {
+            return batchSize;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected int deliver(Queue<Notice> queue) {
+            Notice notice = queue.poll();
+            if (notice == null)
+                return 0;
+            try {
+                subscriber.receive(notice);
+            } catch (Exception e) {
+                logger.warn(e.getMessage(), e);
+            }
+            return 1;
+        }
+    }
 }
@@ -18,19 +18,40 @@ package net.e6tech.elements.common.util.concurrent;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+/**
+ * Runs calls against a service on an executor.  Unless one is supplied, calls go to a shared
+ * bounded pool named "async" rather than to ForkJoinPool.commonPool(), so that a burst of async
+ * calls is rejected, and counted by the pool, instead of starving parallel streams.
+ */
 public class AsyncImpl<U> implements Async<U> {
+    public static final String DEFAULT_POOL = "async";
+    private static final int DEFAULT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int DEFAULT_QUEUE_SIZE = 1024;
 
-    private ThreadPool threadPool;
+    private Executor executor;
     private U service;
 
-    public AsyncImpl(ThreadPool threadPool, U service) {
-        this.threadPool = threadPool;
+    public AsyncImpl(U service) {
+        this(defaultPool(), service);
+    }
+
+    public AsyncImpl(Executor executor, U service) {
+        this.executor = (executor == null) ? defaultPool() : executor;
         this.service = service;
     }
 
+    public static ThreadPool defaultPool() {
+        return ThreadPool.boundedThreadPool(DEFAULT_POOL, DEFAULT_THREADS, DEFAULT_QUEUE_SIZE);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
     @Override
     public long getTimeout() {
         return 0;
@@ -43,11 +64,11 @@ public class AsyncImpl<U> implements Async<U> {
 
     @Override
     public <R> CompletionStage<R> apply(Function<U, R> function) {
-        return CompletableFuture.supplyAsync(() -> function.apply(service), threadPool);
+        return CompletableFuture.supplyAsync(() -> function.apply(service), executor);
     }
 
     @Override
     public CompletionStage<Void> accept(Consumer<U> consumer) {
-        return CompletableFuture.runAsync(() -> consumer.accept(service));
+        return CompletableFuture.runAsync(() -> consumer.accept(service), executor);
     }
 }
@@ -25,20 +25,28 @@ import net.e6tech.elements.common.util.function.FunctionWithException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * Created by futeh.
+ *
+ * In the default EXCLUSIVE mode, a service is checked out for the duration of a call.  In
+ * LEAST_LOADED and PEAK_EWMA modes, services are assumed to be thread safe and may serve
+ * multiple calls at once; each call picks the less loaded of two randomly chosen services,
+ * measured by outstanding calls or by peak EWMA latency times outstanding calls respectively.
  */
 public class Balancer<T> {
     private static Logger logger= Logger.getLogger();
+
+    public enum Mode {
+        EXCLUSIVE,
+        LEAST_LOADED,
+        PEAK_EWMA
+    }
+
     private List<T> services = new ArrayList<>();
     private BlockingQueue<T> liveList = new LinkedBlockingQueue<>();
     private ConcurrentLinkedQueue<T> processingList = new ConcurrentLinkedQueue<>();
@@ -50,12 +58,49 @@ public class Balancer<T> {
     private boolean threadSafe = false;
     private ServiceHandler<T> starter;
     private ServiceHandler<T> stopper;
+    private Mode mode = Mode.EXCLUSIVE;
+    private long decayTime = 10000L;
+    private volatile Node<T>[] nodes = new Node[0];
+    private final Object nodeLock = new Object();
+    private volatile T proxy;
 
     @SuppressWarnings({"unchecked"})
     public T getService() {
-        Class cls = Reflection.getParametrizedType(getClass(), 0);
-        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { cls },
-                (proxy,  method, args)-> execute(service -> method.invoke(service, args)));
+        if (proxy == null) {
+            Class cls = Reflection.getParametrizedType(getClass(), 0);
+            proxy = (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { cls },
+                    (p,  method, args)-> execute(service -> method.invoke(service, args)));
+        }
+        return proxy;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Balancer<T> mode(Mode mode) {
+        setMode(mode);
+        return this;
+    }
+
+    public long getDecayTime() {
+        return decayTime;
+    }
+
+    /**
+     * @param decayTime in milliseconds, how fast latency observed in PEAK_EWMA mode decays.
+     */
+    public void setDecayTime(long decayTime) {
+        this.decayTime = decayTime;
+    }
+
+    public Balancer<T> decayTime(long decayTime) {
+        setDecayTime(decayTime);
+        return this;
     }
 
     public long getTimeout() {
@@ -100,6 +145,8 @@ public class Balancer<T> {
     public void addService(T service) {
         liveList.add(service);
         services.add(service);
+        if (mode != Mode.EXCLUSIVE)
+            addNode(service);
     }
 
     public void forEach(Consumer<T> consumer) {
@@ -112,6 +159,8 @@ public class Balancer<T> {
     }
 
     public int getAvailable() {
+        if (mode != Mode.EXCLUSIVE)
+            return nodes.length;
         return liveList.size();
     }
 
@@ -143,6 +192,7 @@ public class Balancer<T> {
 
     public void start() {
         Iterator<T> iterator = liveList.iterator();
+        List<T> failed = new ArrayList<>();
         stopped = false;
         while (iterator.hasNext()) {
             T service = iterator.next();
@@ -151,9 +201,21 @@ public class Balancer<T> {
             } catch (Exception th) {
                 logger.warn("Cannot start service " + service.getClass(), th);
                 iterator.remove();
-                recover(service);
+                failed.add(service);
+            }
+        }
+
+        if (mode != Mode.EXCLUSIVE) {
+            synchronized (nodeLock) {
+                List<Node<T>> list = new ArrayList<>();
+                liveList.forEach(service -> list.add(new Node<>(service)));
+                nodes = list.toArray(new Node[0]);
+                nodeLock.notifyAll();
             }
         }
+
+        // only after the snapshot so that a service restarted by the recovery thread is not overwritten.
+        failed.forEach(this::recover);
     }
 
     public void stop() {
@@ -192,7 +254,10 @@ public class Balancer<T> {
             try {
                 service = deadList.take();
                 start(service);
-                liveList.offer(service);
+                if (mode == Mode.EXCLUSIVE)
+                    liveList.offer(service);
+                else
+                    addNode(service);
             } catch (Exception ex) {
                 if (service != null) {
                     logger.warn("Cannot restart service " + service.getClass(), ex);
@@ -230,6 +295,8 @@ public class Balancer<T> {
 
     @SuppressWarnings({"squid:S3776", "squid:S899", "squid:S1193"})
     public <R> R execute(FunctionWithException<T, R, Exception> submit) throws IOException {
+        if (mode != Mode.EXCLUSIVE)
+            return executeShared(submit);
         while (true) {  // the while loop is for in case of IOException
             T service;
             boolean owner = false;
@@ -258,28 +325,49 @@ public class Balancer<T> {
             try {
                 R ret = submit.apply(service);
                 if (owner) {
+                    processingList.remove(service);
                     liveList.offer(service);
                 }
                 return ret;
             } catch (Exception ex) {
                 if (shouldRecover(ex)) {
                     if (owner) {
-                        processingList.poll();
+                        processingList.remove(service);
                         recover(service);
                     }
                 } else {
                     if (owner) {
+                        processingList.remove(service);
                         liveList.offer(service);
                     }
-                    if (ex instanceof SystemException) {
-                        error = (SystemException) ex;
-                    } else if (ex instanceof InvocationTargetException) {
-                        error = new SystemException(ex.getCause());
-                    } else if (ex instanceof RuntimeException) {
-                        error = new SystemException(ex.getCause());
-                    } else {
-                        error = new SystemException(ex);
-                    }
+                    error = toSystemException(ex);
+                }
+            }
+
+            if (error != null)
+                throw error;
+        }
+    }
+
+    private <R> R executeShared(FunctionWithException<T, R, Exception> submit) throws IOException {
+        while (true) {  // the while loop is for in case of IOException
+            Node<T> node = select();
+            if (node == null)
+                throw new IOException("No service available");
+
+            SystemException error = null;
+            long start = node.begin();
+            try {
+                R ret = submit.apply(node.service);
+                node.end(start, mode == Mode.PEAK_EWMA, decayTime);
+                return ret;
+            } catch (Exception ex) {
+                node.end(start, false, decayTime);
+                if (shouldRecover(ex)) {
+                    if (removeNode(node))  // only one of the failing callers recovers it
+                        recover(node.service);
+                } else {
+                    error = toSystemException(ex);
                 }
             }
 
@@ -288,11 +376,133 @@ public class Balancer<T> {
         }
     }
 
+    @SuppressWarnings("squid:S899")
+    private Node<T> select() {
+        Node<T>[] snapshot = nodes;
+        if (snapshot.length == 0) {
+            long deadline = System.currentTimeMillis() + timeout;
+            synchronized (nodeLock) {
+                long remaining = timeout;
+                while ((snapshot = nodes).length == 0 && remaining > 0) {
+                    try {
+                        nodeLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            }
+            if (snapshot.length == 0)
+                return null;
+        }
+
+        if (snapshot.length == 1)
+            return snapshot[0];
+
+        // power of two choices
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(snapshot.length);
+        int b = random.nextInt(snapshot.length - 1);
+        if (b >= a)
+            b++;
+        if (mode == Mode.PEAK_EWMA) {
+            long now = System.nanoTime();
+            return snapshot[a].cost(now, decayTime) <= snapshot[b].cost(now, decayTime) ? snapshot[a] : snapshot[b];
+        }
+        return snapshot[a].outstanding.get() <= snapshot[b].outstanding.get() ? snapshot[a] : snapshot[b];
+    }
+
+    private void addNode(T service) {
+        synchronized (nodeLock) {
+            Node<T>[] copy = Arrays.copyOf(nodes, nodes.length + 1);
+            copy[copy.length - 1] = new Node<>(service);
+            nodes = copy;
+            nodeLock.notifyAll();
+        }
+    }
+
+    private boolean removeNode(Node<T> node) {
+        synchronized (nodeLock) {
+            Node<T>[] current = nodes;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == node) {
+                    Node<T>[] copy = Arrays.copyOf(current, current.length - 1);
+                    System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                    nodes = copy;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private SystemException toSystemException(Exception ex) {
+        if (ex instanceof SystemException) {
+            return (SystemException) ex;
+        } else if (ex instanceof InvocationTargetException) {
+            return new SystemException(ex.getCause());
+        } else if (ex instanceof RuntimeException) {
+            return new SystemException(ex.getCause());
+        } else {
+            return new SystemException(ex);
+        }
+    }
+
     protected boolean shouldRecover(Exception exception) {
         Throwable throwable = ExceptionMapper.unwrap(exception);
         return throwable instanceof IOException;
     }
 
+    private static class Node<T> {
+        private static final double PENALTY = 1.0e12; // nanoseconds, for a service with calls but no measurement yet
+        private final T service;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile double latency;   // peak EWMA in nanoseconds
+        private volatile long stamp = System.nanoTime();
+
+        Node(T service) {
+            this.service = service;
+        }
+
+        long begin() {
+            outstanding.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void end(long start, boolean observe, long decayTime) {
+            outstanding.decrementAndGet();
+            if (observe) {
+                long now = System.nanoTime();
+                observe(now, now - start, decayTime);
+            }
+        }
+
+        // a slower response replaces the average right away; faster ones are averaged in.
+        synchronized void observe(long now, long rtt, long decayTime) {
+            double decayed = decay(now, decayTime);
+            latency = (rtt > decayed) ? rtt : decayed + (rtt - decayed) * (1.0 - weight(now, decayTime));
+            stamp = now;
+        }
+
+        double cost(long now, long decayTime) {
+            int pending = outstanding.get();
+            double decayed = decay(now, decayTime);
+            if (decayed == 0.0 && pending != 0)
+                return PENALTY + pending;
+            return decayed * (pending + 1);
+        }
+
+        private double decay(long now, long decayTime) {
+            return latency * weight(now, decayTime);
+        }
+
+        private double weight(long now, long decayTime) {
+            long elapsed = Math.max(0L, now - stamp);
+            return Math.exp(-elapsed / (decayTime * 1_000_000.0));
+        }
+    }
+
     // provides a way for an external system to start or to stop a service.
     public interface ServiceHandler<T> {
         void handle(T t) throws IOException;
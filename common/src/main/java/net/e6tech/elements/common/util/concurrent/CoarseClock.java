@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015-2020 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.util.concurrent;
+
+/**
+ * A clock that is updated by a daemon thread every RESOLUTION milliseconds.  Reading it is
+ * a volatile read, which is cheaper than System.currentTimeMillis on hot paths that only need
+ * approximate time, e.g., idle timestamps.  The returned time is never ahead of the real time.
+ */
+public final class CoarseClock {
+    public static final long RESOLUTION = 10L;
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(RESOLUTION);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                now = System.currentTimeMillis();
+            }
+        }, "CoarseClock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    public static long currentTimeMillis() {
+        return now;
+    }
+}
@@ -16,9 +16,31 @@
 
 package net.e6tech.elements.common.util.concurrent;
 
+import com.lmax.disruptor.*;
+import com.lmax.disruptor.dsl.ProducerType;
+
 public class DisruptorConfig {
+
+    public enum WaitStrategyType {
+        BLOCKING,   // lowest CPU usage, highest latency
+        SLEEPING,
+        YIELDING,
+        BUSY_SPIN;  // lowest latency, occupies a core per handler
+
+        WaitStrategy create() {
+            switch (this) {
+                case BLOCKING: return new BlockingWaitStrategy();
+                case SLEEPING: return new SleepingWaitStrategy();
+                case BUSY_SPIN: return new BusySpinWaitStrategy();
+                default: return new YieldingWaitStrategy();
+            }
+        }
+    }
+
     private int bufferSize = 1024;
     private int handlerSize = Runtime.getRuntime().availableProcessors();
+    private ProducerType producerType = ProducerType.MULTI;  // SINGLE only if one thread submits
+    private WaitStrategyType waitStrategy = WaitStrategyType.YIELDING;
 
     public int getBufferSize() {
         return bufferSize;
@@ -35,4 +57,20 @@ public class DisruptorConfig {
     public void setHandlerSize(int handlerSize) {
         this.handlerSize = handlerSize;
     }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public void setProducerType(ProducerType producerType) {
+        this.producerType = producerType;
+    }
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategyType waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
 }
@@ -18,16 +18,17 @@ package net.e6tech.elements.common.util.concurrent;
 
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.WorkHandler;
-import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
-import com.lmax.disruptor.dsl.ProducerType;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 import net.e6tech.elements.common.util.SystemException;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 
+/**
+ * Runs tasks on a pool of handlers fed by a Disruptor ring buffer.  By default the ring buffer
+ * accepts submissions from multiple threads; see DisruptorConfig for producer type and wait strategy.
+ */
 @SuppressWarnings("unchecked")
 public class DisruptorPool {
     private DisruptorConfig config = new DisruptorConfig();
@@ -37,6 +38,11 @@ public class DisruptorPool {
         start();
     }
 
+    public DisruptorPool(DisruptorConfig config) {
+        this.config = config;
+        start();
+    }
+
     public DisruptorConfig getConfig() {
         return config;
     }
@@ -55,7 +61,7 @@ public class DisruptorPool {
 
     public void start() {
         disruptor = new Disruptor<>(Event::new, config.getBufferSize(), DaemonThreadFactory.INSTANCE,
-                ProducerType.SINGLE, new YieldingWaitStrategy());
+                config.getProducerType(), config.getWaitStrategy().create());
         WorkHandler<Event> handler = Event::handle;
         WorkHandler<Event>[] workers = new WorkHandler[config.getHandlerSize()];
         for (int i = 0; i < workers.length; i++) {
@@ -66,20 +72,16 @@ public class DisruptorPool {
         disruptor.start();
     }
 
+    public void shutdown() {
+        disruptor.shutdown();
+    }
+
     public RunnableWait run(Runnable runnable) {
         return run(runnable, null);
     }
 
     public RunnableWait run(Runnable runnable, Consumer<Exception> exceptionHandler) {
-        Result<Void> result = new Result<>();
-        RingBuffer<Event> ringBuffer = disruptor.getRingBuffer();
-        ringBuffer.publishEvent((event, sequence, buffer) -> {
-            event.runnable = runnable;
-            event.result = result;
-            event.exceptionHandler = exceptionHandler;
-        });
-
-        return new RunnableWait(result);
+        return new RunnableWait(publish(runnable, null, exceptionHandler, new CompletableFuture<>()));
     }
 
     public void runAsync(Runnable runnable) {
@@ -87,11 +89,7 @@ public class DisruptorPool {
     }
 
     public void runAsync(Runnable runnable, Consumer<Exception> exceptionHandler) {
-        RingBuffer<Event> ringBuffer = disruptor.getRingBuffer();
-        ringBuffer.publishEvent((event, sequence, buffer) -> {
-            event.runnable = runnable;
-            event.exceptionHandler = exceptionHandler;
-        });
+        publish(runnable, null, exceptionHandler, null);
     }
 
     public <V> CallableWait<V> call(Callable<V> callable) {
@@ -99,53 +97,57 @@ public class DisruptorPool {
     }
 
     public <V> CallableWait<V> call(Callable<V> callable, Consumer<Exception> exceptionHandler) {
-        Result result = new Result();
+        return new CallableWait<>(publish(null, callable, exceptionHandler, new CompletableFuture<>()));
+    }
+
+    /**
+     * @return a future completed by the handler, exceptionally if runnable throws.
+     */
+    public CompletableFuture<Void> submit(Runnable runnable) {
+        return publish(runnable, null, null, new CompletableFuture<>());
+    }
+
+    /**
+     * @return a future completed by the handler with the value returned by callable, or exceptionally if it throws.
+     */
+    public <V> CompletableFuture<V> submit(Callable<V> callable) {
+        return publish(null, callable, null, new CompletableFuture<>());
+    }
+
+    private <V> CompletableFuture<V> publish(Runnable runnable, Callable<V> callable,
+                                             Consumer<Exception> exceptionHandler, CompletableFuture<V> future) {
         RingBuffer<Event> ringBuffer = disruptor.getRingBuffer();
         ringBuffer.publishEvent((event, sequence, buffer) -> {
+            event.runnable = runnable;
             event.callable = callable;
-            event.result = result;
+            event.future = future;
             event.exceptionHandler = exceptionHandler;
         });
-
-        return new CallableWait<>(result);
+        return future;
     }
 
     public static class Wait<V> {
-        Result<V> result;
+        CompletableFuture<V> future;
 
-        Wait(Result<V> result) {
-            this.result = result;
+        Wait(CompletableFuture<V> future) {
+            this.future = future;
         }
 
-        protected void await(long timeout)  throws TimeoutException {
-            long start = System.currentTimeMillis();
-            boolean first = true;
-            synchronized (result) {
-                while (!result.done) {
-                    if (!first && System.currentTimeMillis() - start > timeout) {
-                        throw new TimeoutException();
-                    }
-                    if (first)
-                        first = false;
-                    try {
-                        long wait = timeout - (System.currentTimeMillis() - start);
-                        if (wait > 0)
-                            result.wait(wait);
-                        if (result.exception != null)
-                            throw new SystemException(result.exception);
-
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new SystemException(e);
-                    }
-                }
+        protected V await(long timeout)  throws TimeoutException {
+            try {
+                return future.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new SystemException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException(e);
             }
         }
     }
 
     public static class RunnableWait extends Wait<Void> {
-        RunnableWait(Result<Void> result) {
-            super(result);
+        RunnableWait(CompletableFuture<Void> future) {
+            super(future);
         }
 
         public void complete(long timeout)  throws TimeoutException {
@@ -154,71 +156,50 @@ public class DisruptorPool {
     }
 
     public static class CallableWait<V> extends Wait<V> {
-        CallableWait(Result<V> result) {
-            super(result);
+        CallableWait(CompletableFuture<V> future) {
+            super(future);
         }
 
         public V complete(long timeout)  throws TimeoutException {
-            await(timeout);
-            return result.returnValue;
+            return await(timeout);
         }
     }
 
-    private static class Result<V> {
-        private Exception exception;
-        private V returnValue;
-        private volatile boolean done = false;
-    }
-
     private static class Event<V> {
-        private Result result;
+        private CompletableFuture<V> future;
         private Runnable runnable;
         private Callable<V> callable;
         private Consumer<Exception> exceptionHandler;
 
         void clear() {
-            result = null;
+            future = null;
             runnable = null;
             callable = null;
             exceptionHandler = null;
         }
 
         void handle() {
-            if (runnable != null) {
-                run();
-            } else {
-                call();
-            }
-            if (result != null) {
-                synchronized (result) {
-                    result.notifyAll();
-                    result.done = true;
-                }
-            }
-        }
-
-        void run() {
-            try {
-                runnable.run();
-            } catch (Exception ex) {
-                if (exceptionHandler != null)
-                    exceptionHandler.accept(ex);
-                else if (result != null)
-                    result.exception = ex;
-            }
-        }
-
-        void call() {
+            V ret = null;
             try {
-                Object ret = callable.call();
-                if (result != null)
-                    result.returnValue = ret;
+                if (runnable != null)
+                    runnable.run();
+                else
+                    ret = callable.call();
             } catch (Exception ex) {
-                if (exceptionHandler != null)
+                if (exceptionHandler != null) {
                     exceptionHandler.accept(ex);
-                else if (result != null)
-                    result.exception = ex;
+                } else if (future != null) {
+                    future.completeExceptionally(ex);
+                    return;
+                }
+            } catch (Throwable th) { // Errors bypass exceptionHandler; without a future there is no one else to tell
+                if (future == null)
+                    throw th;
+                future.completeExceptionally(th);
+                return;
             }
+            if (future != null)
+                future.complete(ret);
         }
     }
 }
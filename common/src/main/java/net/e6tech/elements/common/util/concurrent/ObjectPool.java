@@ -18,9 +18,8 @@ package net.e6tech.elements.common.util.concurrent;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -31,15 +30,39 @@ import java.util.function.Function;
  * new ObjectPool&lt;&gt;().factory(factory).build(); <br>
  * or new ObjectPool&lt;type&gt;(){}.build();
  * </p>
+ * Pooled objects are kept in stripes, one per core, picked by thread id, so that threads
+ * checking objects in and out do not contend on one queue.  A stripe that is full or empty
+ * falls back to a shared overflow.  Together they hold about limit objects.
+ * Idle objects are evicted at most once per idleTimeout.
  */
 public class ObjectPool<T> {
-    private ConcurrentLinkedDeque<Entry<T>> deque = new ConcurrentLinkedDeque<>();
-    private ConcurrentLinkedDeque<Entry<T>> entries = new ConcurrentLinkedDeque<>();
+    private static final int STRIPES = stripeCount();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Stripe shared = new Stripe();
     private ObjectFactory<T> factory;
     private Class<?> type;
     private int limit = 50;
+    private int stripeLimit;
+    private int sharedLimit;
     private int idleTimeout = 20000;
-    private long lastCleanup = 0L;
+    private final AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
+
+    public ObjectPool() {
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Stripe();
+        computeLimits();
+    }
+
+    private static int stripeCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int count = Integer.highestOneBit(Math.max(1, processors - 1)) << 1;
+        return Math.min(count, 64);
+    }
+
+    private void computeLimits() {
+        stripeLimit = Math.max(1, limit / (2 * stripes.length));
+        sharedLimit = Math.max(0, limit - stripeLimit * stripes.length);
+    }
 
     public ObjectPool<T> build() {
         if (type == null && factory == null) {
@@ -94,6 +117,7 @@ public class ObjectPool<T> {
 
     public void setLimit(int limit) {
         this.limit = limit;
+        computeLimits();
     }
 
     public ObjectPool<T> limit(int limit) {
@@ -115,12 +139,16 @@ public class ObjectPool<T> {
     }
 
     public int size() {
-        return deque.size();
+        int size = shared.size();
+        for (Stripe stripe : stripes)
+            size += stripe.size();
+        return size;
     }
 
     public ObjectPool<T> clear() {
-        deque.clear();
-        entries.clear();
+        for (Stripe stripe : stripes)
+            stripe.clear();
+        shared.clear();
         return this;
     }
 
@@ -160,56 +188,40 @@ public class ObjectPool<T> {
         }
     }
 
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
     public T checkOut() {
-        if (deque.isEmpty()) {
-            lastCleanup = System.currentTimeMillis();
+        Object value = stripe().pop();
+        if (value == null)
+            value = shared.pop();
+        if (value == null)
             return create();
-        }
-        try {
-            Entry<T> entry = deque.removeLast();
-            T value = entry.value;
-            entry.value = null;
-            if (entries.size() < limit)
-                entries.offer(entry);
-            return value;
-        } catch (NoSuchElementException e) {
-            return create();
-        }
+        return (T) value;
     }
 
     public void checkIn(T t) {
         if (t == null)
             return;
 
-        if (deque.size() < limit) {
-            Entry<T> entry;
-            try {
-                entry = entries.remove();
-            } catch (NoSuchElementException e) {
-                entry = new Entry<>();
-            }
-            entry.value = t;
-            entry.lastAccess = System.currentTimeMillis();
-            deque.offerLast(entry);
-        }
+        long time = CoarseClock.currentTimeMillis();
+        if (!stripe().push(t, time, stripeLimit))
+            shared.push(t, time, sharedLimit);
 
-        cleanup();
+        // the coarse clock may lag by up to its resolution, hence the allowance.
+        long last = lastCleanup.get();
+        if (time - last >= idleTimeout - CoarseClock.RESOLUTION && lastCleanup.compareAndSet(last, time))
+            cleanup();
     }
 
     public void cleanup() {
         long time = System.currentTimeMillis();
-        if (time - lastCleanup > idleTimeout) {
-            lastCleanup = time;
-            final Iterator<Entry<T>> each = deque.iterator();
-            while (each.hasNext()) {
-                Entry<T> entry = each.next();
-                if (time - entry.lastAccess > idleTimeout) {
-                    each.remove();
-                } else {
-                    break;
-                }
-            }
-        }
+        lastCleanup.set(time);
+        for (Stripe stripe : stripes)
+            stripe.evict(time, idleTimeout);
+        shared.evict(time, idleTimeout);
     }
 
     @FunctionalInterface
@@ -217,9 +229,54 @@ public class ObjectPool<T> {
         T create();
     }
 
-    private static class Entry<T> {
-        long lastAccess;
-        T value;
-    }
+    // A stack of pooled objects; the oldest are at the bottom.
+    private static class Stripe {
+        private Object[] values = new Object[0];
+        private long[] lastAccess = new long[0];
+        private int size;
+
+        synchronized boolean push(Object value, long time, int capacity) {
+            if (size >= capacity)
+                return false;
+            if (size == values.length) {
+                int length = Math.min(capacity, Math.max(4, size * 2));
+                values = Arrays.copyOf(values, length);
+                lastAccess = Arrays.copyOf(lastAccess, length);
+            }
+            values[size] = value;
+            lastAccess[size] = time;
+            size++;
+            return true;
+        }
+
+        synchronized Object pop() {
+            if (size == 0)
+                return null;
+            size--;
+            Object value = values[size];
+            values[size] = null;
+            return value;
+        }
+
+        synchronized void evict(long time, long idleTimeout) {
+            int expired = 0;
+            while (expired < size && time - lastAccess[expired] > idleTimeout)
+                expired++;
+            if (expired == 0)
+                return;
+            System.arraycopy(values, expired, values, 0, size - expired);
+            System.arraycopy(lastAccess, expired, lastAccess, 0, size - expired);
+            Arrays.fill(values, size - expired, size, null);
+            size -= expired;
+        }
 
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
 }
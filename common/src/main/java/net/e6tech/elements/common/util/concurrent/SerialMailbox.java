@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.util.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A queue drained by at most one task at a time so that items are delivered in order without locking.
+ * Posting an item schedules a drain on the executor unless one is already scheduled.  A drain calls deliver
+ * until the queue is empty; after yieldAfter items it re-submits itself so that other mailboxes get a turn.
+ *
+ * The scheduled flag is always cleared, even when deliver throws an Error or the executor rejects the task,
+ * so a mailbox never stops draining.  Items left over by such a failure are drained on the next post.
+ */
+public abstract class SerialMailbox<T> implements Runnable {
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    protected abstract Executor executor();
+
+    /**
+     * Delivers one or more items taken from the queue.
+     * @return number of items taken, 0 when the queue is empty.
+     */
+    protected abstract int deliver(Queue<T> queue);
+
+    protected int yieldAfter() {
+        return Integer.MAX_VALUE;
+    }
+
+    public void post(T item) {
+        queue.offer(item);
+        schedule();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor().execute(this);
+            } catch (RuntimeException | Error ex) {
+                scheduled.set(false);
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean yielded = false;
+        try {
+            int delivered = 0;
+            int count;
+            while ((count = deliver(queue)) > 0) {
+                delivered += count;
+                if (delivered >= yieldAfter() && !queue.isEmpty() && resubmit()) {
+                    yielded = true;
+                    return;
+                }
+            }
+        } finally {
+            if (!yielded)
+                scheduled.set(false);
+        }
+        if (!queue.isEmpty())
+            schedule();
+    }
+
+    // still scheduled; if the executor refuses, the current thread keeps draining.
+    @SuppressWarnings("squid:S1166")
+    private boolean resubmit() {
+        try {
+            executor().execute(this);
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+}
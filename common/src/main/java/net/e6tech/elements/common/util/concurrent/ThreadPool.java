@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -34,14 +35,20 @@ public class ThreadPool implements java.util.concurrent.ThreadFactory, ExecutorS
     private static Map<String, ThreadPool> cachedThreadPools = new HashMap<>();
     private static Map<String, ThreadPool> rateLimitedThreadPools = new HashMap<>();
     private static Map<String, ThreadPool> fixedThreadPools = new HashMap<>();
+    private static Map<String, ThreadPool> boundedThreadPools = new HashMap<>();
 
     private String name;
     private boolean daemon = true;
     private ExecutorService executorService;
+    private final LongAdder rejected = new LongAdder();
 
     protected ThreadPool(String name, Function<ThreadFactory, ExecutorService> newPool) {
         this.name = name;
         this.executorService = newPool.apply(this);
+        if (executorService instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) executorService;
+            executor.setRejectedExecutionHandler(new Counting(executor.getRejectedExecutionHandler()));
+        }
     }
 
     /**
@@ -79,6 +86,45 @@ public class ThreadPool implements java.util.concurrent.ThreadFactory, ExecutorS
                 new ThreadPool(name, p -> Executors.newFixedThreadPool(nThreads, p)));
     }
 
+    /**
+     * Returns a pool with at most nThreads threads and at most queueSize pending tasks.  Idle threads
+     * time out after 60 seconds.  Submitting a task when the queue is full results in a RejectedExecutionException
+     * unless a different handler is installed; either way the rejection is counted, see getRejected().
+     * @param name name of the pool
+     * @param nThreads maximum number of threads
+     * @param queueSize maximum number of queued tasks
+     * @return ThreadPool
+     */
+    public static synchronized ThreadPool boundedThreadPool(String name, int nThreads, int queueSize) {
+        return boundedThreadPools.computeIfAbsent(name, poolName ->
+                new ThreadPool(name, p -> {
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(nThreads, nThreads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(queueSize), p);
+                    executor.allowCoreThreadTimeOut(true);
+                    return executor;
+                }));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of tasks rejected by the underlying executor.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of tasks waiting in the queue, or -1 if the underlying executor does not expose its queue.
+     */
+    public int getQueueSize() {
+        if (executorService instanceof ThreadPoolExecutor)
+            return ((ThreadPoolExecutor) executorService).getQueue().size();
+        return -1;
+    }
+
     public ThreadPool daemon() {
         return daemon(true);
     }
@@ -92,7 +138,7 @@ public class ThreadPool implements java.util.concurrent.ThreadFactory, ExecutorS
         if (handler == null)
             throw new NullPointerException();
         if (executorService instanceof ThreadPoolExecutor) {
-            ((ThreadPoolExecutor) executorService).setRejectedExecutionHandler(handler);
+            ((ThreadPoolExecutor) executorService).setRejectedExecutionHandler(new Counting(handler));
         }
         return this;
     }
@@ -178,4 +224,18 @@ public class ThreadPool implements java.util.concurrent.ThreadFactory, ExecutorS
     public void execute(Runnable command) {
         executorService.execute(command);
     }
+
+    private class Counting implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler handler;
+
+        Counting(RejectedExecutionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            handler.rejectedExecution(runnable, executor);
+        }
+    }
 }
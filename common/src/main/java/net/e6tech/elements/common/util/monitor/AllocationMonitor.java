@@ -19,6 +19,7 @@ import java.lang.ref.PhantomReference;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by futeh.
@@ -35,7 +36,9 @@ public class AllocationMonitor {
     private boolean disabled = false;
 
     public AllocationMonitor() {
-        Comparator<AllocationReference> comparator = Comparator.comparingLong(l -> l.expiredTime);
+        // sequence breaks ties; otherwise references expiring in the same millisecond are treated as one.
+        Comparator<AllocationReference> comparator = Comparator.<AllocationReference>comparingLong(l -> l.expiredTime)
+                .thenComparingLong(l -> l.sequence);
         allocated = Collections.synchronizedSortedSet(new TreeSet<>(comparator));
     }
 
@@ -46,15 +49,30 @@ public class AllocationMonitor {
      * @param timeout  timeout period
      * @param obj the object to be monitor
      * @param listener an AllocationListener
+     * @return a reference that can be passed to cancel once obj is known not to leak; null if disabled.
      */
-    public void monitorLeak(long timeout, Object obj, LeakListener listener) {
+    public Reference<?> monitorLeak(long timeout, Object obj, LeakListener listener) {
         if (disabled)
-            return;
+            return null;
         long realTimeout = timeout;
         if (realTimeout <= 0)
             realTimeout = expired;
-        allocated.add(new AllocationReference(realTimeout, obj, phantoms, listener));
+        AllocationReference ref = new AllocationReference(realTimeout, obj, phantoms, listener);
+        allocated.add(ref);
         checkGCThread();
+        return ref;
+    }
+
+    /**
+     * Stops monitoring an object, e.g., a Resources that has been closed properly.
+     *
+     * @param reference returned by monitorLeak
+     */
+    public void cancel(Reference<?> reference) {
+        if (reference == null)
+            return;
+        allocated.remove(reference);
+        reference.clear();
     }
 
     /**
@@ -156,7 +174,9 @@ public class AllocationMonitor {
     }
 
     static class AllocationReference extends PhantomReference<Object> {
+        private static final AtomicLong sequencer = new AtomicLong();
         AllocationListener listener;
+        long sequence = sequencer.incrementAndGet();
         long startTime;
         long expiredTime;
 
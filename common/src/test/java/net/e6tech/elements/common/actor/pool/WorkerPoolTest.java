@@ -21,6 +21,9 @@ import net.e6tech.elements.common.actor.typed.worker.WorkEvents;
 import net.e6tech.elements.common.resources.Resources;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -82,4 +85,39 @@ public class WorkerPoolTest {
 
         Thread.sleep(2100L);
     }
+
+    @Test
+    public void workStealing() throws Exception {
+        Genesis genesis = new Genesis();
+        genesis.setProfile("local");
+        genesis.setName("WorkStealing");
+        genesis.getWorkPoolConfig().setInitialCapacity(2);
+        genesis.getWorkPoolConfig().setMaxCapacity(4);
+        genesis.getWorkPoolConfig().setIdleTimeout(1000L);
+        genesis.getWorkPoolConfig().setWorkStealing(true);
+        genesis.initialize((Resources) null);
+
+        int count = 200;
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            genesis.async(() -> {
+                try {
+                    Thread.sleep(5L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }, 5000L);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        WorkEvents.StatusResponse response = genesis.getGuardian().getWorkerPool().status(new WorkEvents.Status());
+        assertEquals(4, response.getWorkerCount());
+
+        Thread.sleep(2000L);
+        response = genesis.getGuardian().getWorkerPool().status(new WorkEvents.Status());
+        assertEquals(0, response.getWaitCount());
+        assertEquals(0, response.getBusyCount());
+        assertEquals(2, response.getWorkerCount());
+    }
 }
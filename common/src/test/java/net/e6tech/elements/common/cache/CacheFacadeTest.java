@@ -24,9 +24,17 @@ import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,4 +115,105 @@ public class CacheFacadeTest {
         v = cache2.get("a");
         assertTrue(v == null);
     }
+
+    @Test
+    void singleFlight() throws Exception {
+        CacheFacade<Long, String> facade = new CacheFacade<Long, String>("singleFlight") {}
+                .initPool(pool -> pool.setExpiry(60000L));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[20];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertEquals("one", facade.get(1L, () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(100L);
+                    return "one";
+                }));
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void joinedLoadReturnsNothing() throws Exception {
+        CacheFacade<Long, String> facade = new CacheFacade<Long, String>("joinedLoad") {}
+                .initPool(pool -> pool.setExpiry(60000L));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch joined = new CountDownLatch(1);
+        Thread first = new Thread(() -> facade.get(1L, () -> {
+            loading.countDown();
+            joined.await();
+            return null;
+        }));
+        first.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(100L);  // lets the get below join the first load
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            joined.countDown();
+        });
+        release.start();
+        // the joined load produced nothing, so this caller's loader runs.
+        assertEquals("two", facade.get(1L, () -> "two"));
+        first.join();
+        release.join();
+    }
+
+    @Test
+    void refreshAhead() throws Exception {
+        CacheFacade<Long, String> facade = new CacheFacade<Long, String>("refreshAhead") {}
+                .initPool(pool -> {
+                    pool.setExpiry(1000L);
+                    pool.setRefreshAhead(0.2);
+                });
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("0", facade.get(1L, () -> Integer.toString(loads.getAndIncrement())));
+        Thread.sleep(300L);
+        // stale value is returned while the entry is reloaded in the background
+        assertEquals("0", facade.get(1L, () -> Integer.toString(loads.getAndIncrement())));
+        Thread.sleep(100L);
+        assertEquals("1", facade.get(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void tiers() throws Exception {
+        File dir = Files.createTempDirectory("cache-facade").toFile();
+        CacheFacade<Long, String> facade = new CacheFacade<Long, String>("tiers") {}
+                .initPool(pool -> {
+                    pool.setMaxEntries(10);
+                    pool.setOffHeapSize(1);
+                    pool.setDiskSize(2);
+                    pool.setDiskPath(dir.getAbsolutePath());
+                    pool.setStatistics(true);
+                });
+        try {
+            for (long i = 0; i < 100; i++)
+                facade.put(i, Long.toString(i));
+            for (long i = 0; i < 100; i++)  // most of them are no longer on heap
+                assertEquals(Long.toString(i), facade.get(i));
+            assertNull(facade.get(100L));
+            assertEquals(100, facade.getHits());
+            assertEquals(1, facade.getMisses());
+        } finally {
+            facade.getCacheConfiguration().getCacheManager().close();  // releases the disk store before it is deleted
+            try (Stream<Path> paths = Files.walk(dir.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        assertFalse(dir.exists());
+    }
 }
@@ -168,6 +168,22 @@ public class InterceptorTest {
         Interceptor.getInstance().newInterceptor(calendar, frame -> null );
     }
 
+    @Test
+    void noHandler() {
+        TestClass target = new TestClass();
+        TestClass proxy = new Interceptor().interceptorBuilder(target, null).build();
+        proxy.setValue(5);  // no handler, the frame is skipped and the call goes to the target
+        assertTrue(target.getValue() == 5);
+
+        AtomicReference<Boolean> atomic = new AtomicReference<>(false);
+        Interceptor.setInterceptorHandler(proxy, frame -> {
+            atomic.set(true);
+            return frame.invoke();
+        });
+        assertTrue(proxy.getValue() == 5);
+        assertTrue(atomic.get());
+    }
+
     @Test
     void anonymousClassThreads() throws Exception{
         long start = System.currentTimeMillis();
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.notification;
+
+import net.e6tech.elements.common.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tags.Common
+public class NotificationCenterTest {
+
+    @Test
+    void sync() {
+        NotificationCenter center = new NotificationCenter();
+        List<Notification> received = new CopyOnWriteArrayList<>();
+        NotificationListener<Base> listener = received::add;
+        center.addNotificationListener(Base.class, listener);
+        center.fireNotification(new Derived("a"));
+        assertEquals(1, received.size());
+
+        center.removeNotificationListener(Base.class, listener);
+        center.fireNotification(new Derived("a"));
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void async() throws Exception {
+        NotificationCenter center = new NotificationCenter();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<List<Base>> batches = new CopyOnWriteArrayList<>();
+        AsyncListener listener = new AsyncListener(batches, started, blocked, done);
+        center.addNotificationListener(Base.class, listener);
+
+        center.fireNotification(new Derived("first"));  // the listener holds on to this one
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        int base = Base.counter;
+        for (int i = 0; i < 10; i++)
+            center.fireNotification(new Derived("key" + (i % 2)));
+        center.fireNotification(new Derived(null));
+        center.fireNotification(new Derived("last"));
+        blocked.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, batches.size());
+        List<Base> batch = batches.get(1);
+        assertEquals(4, batch.size()); // key0, key1, null and last
+        assertEquals("key0", batch.get(0).key);
+        assertEquals(base + 8, batch.get(0).sequence);
+        assertEquals(base + 9, batch.get(1).sequence);
+        assertThrows(UnsupportedOperationException.class, () -> listener.onEvent(null));
+    }
+
+    @Test
+    void asyncRecovers() {
+        NotificationCenter center = new NotificationCenter();
+        AtomicBoolean reject = new AtomicBoolean(true);
+        center.setExecutor(task -> {
+            if (reject.getAndSet(false))
+                throw new RejectedExecutionException();
+            task.run();
+        });
+        List<Base> received = new CopyOnWriteArrayList<>();
+        center.addNotificationListener(Base.class, new NotificationListener<Base>() {
+            @Override
+            public boolean isAsync() {
+                return true;
+            }
+
+            @Override
+            public void onEvent(Base notification) {
+                if ("error".equals(notification.key))
+                    throw new AssertionError("error");
+                received.add(notification);
+            }
+        });
+
+        assertThrows(RejectedExecutionException.class, () -> center.fireNotification(new Derived(null)));
+        assertThrows(AssertionError.class, () -> center.fireNotification(new Derived("error")));
+        center.fireNotification(new Derived("after"));
+        assertEquals(2, received.size());  // the rejected one is delivered with the next notification
+        assertEquals("after", received.get(1).key);
+    }
+
+    private static class AsyncListener implements NotificationListener<Base> {
+        List<List<Base>> batches;
+        CountDownLatch started;
+        CountDownLatch blocked;
+        CountDownLatch done;
+
+        AsyncListener(List<List<Base>> batches, CountDownLatch started, CountDownLatch blocked, CountDownLatch done) {
+            this.batches = batches;
+            this.started = started;
+            this.blocked = blocked;
+            this.done = done;
+        }
+
+        @Override
+        public boolean isAsync() {
+            return true;
+        }
+
+        @Override
+        public void onEvents(List<Base> notifications) {
+            batches.add(notifications);
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if ("last".equals(notifications.get(notifications.size() - 1).key))
+                done.countDown();
+        }
+
+        @Override
+        public void onEvent(Base notification) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Base implements Notification {
+        private static int counter = 0;
+        String key;
+        int sequence;
+
+        Base(String key) {
+            this.key = key;
+            this.sequence = counter++;
+        }
+
+        @Override
+        public Object coalescingKey() {
+            return key;
+        }
+    }
+
+    private static class Derived extends Base {
+        Derived(String key) {
+            super(key);
+        }
+    }
+}
@@ -22,6 +22,8 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 /**
  * Created by futeh.
@@ -66,6 +68,27 @@ public class ReflectionTest {
         assertTrue(z.getTypes().get(0) == Z1.Type.a);
     }
 
+    @Test
+    public void copyProperties() {
+        P p = new P();
+        p.setName("name");
+        p.setSecret("secret");
+        p.setAmount("12.5");
+        Q q = new Q();
+        for (int i = 0; i < 2; i++) { // second copy uses the cached copier
+            p.setCount(3 + i);
+            Reflection.copyInstance(q, p);
+            assertEquals(3 + i, q.getCount());
+            assertEquals("name", q.getName());
+            assertNull(q.getSecret());
+            assertEquals(12.5d, q.getAmount());
+        }
+
+        q.setName("other");
+        Reflection.copyInstance(p, q);
+        assertEquals("name", p.getName()); // DoNotAccept
+    }
+
     public static class X {
         enum Type {
             a, b
@@ -138,4 +161,83 @@ public class ReflectionTest {
         }
     }
 
+    public static class P {
+        private int count;
+        private String name;
+        private String secret;
+        private String amount;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @DoNotAccept
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @DoNotCopy
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public void setAmount(String amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class Q {
+        private int count;
+        private String name;
+        private String secret;
+        private double amount;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package net.e6tech.elements.common.resources;
 
+import net.e6tech.elements.common.inject.Inject;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Type;
@@ -81,7 +82,70 @@ public class ResourceManagerTest {
         assertEquals("Hello World", resourceManager.nullableVar("YY"));
     }
 
+    @Test
+    void injectNested() {
+        ResourceManager resourceManager = new ResourceManager();
+        X x = resourceManager.bind(X.class, new X());
+        UnitOfWork unitOfWork = new UnitOfWork(resourceManager);
+        unitOfWork.accept(Resources.class, res -> {
+            Parent parent = new Parent();
+            parent.child.parent = parent; // cycle
+            res.inject(parent);
+            assertSame(x, parent.x);
+            assertSame(x, parent.child.x);
+            assertSame(x, parent.getSibling().x);
+        });
+    }
+
+    @Test
+    void recycleResources() {
+        ResourceManager resourceManager = new ResourceManager();
+        resourceManager.setRecycleResources(true);
+        UnitOfWork unitOfWork = new UnitOfWork(resourceManager);
+        Resources first = unitOfWork.open();
+        first.setVariable("key", "value");
+        unitOfWork.commit();
+        assertNull(unitOfWork.getResources());
+
+        Resources second = new UnitOfWork(resourceManager).open();
+        assertSame(first, second);
+        assertTrue(second.isOpen());
+        assertFalse(second.getVariable("key").isPresent());
+        assertSame(second, second.getInstance(Resources.class));
+        second.commit();
+
+        // not released through UnitOfWork, so not recycled
+        assertNotSame(second, new UnitOfWork(resourceManager).open());
+
+        // subclasses may carry state that recycle does not reset
+        Resources subclass = new Resources(resourceManager) {};
+        assertFalse(resourceManager.recycle(subclass));
+    }
+
     public static class X {
 
     }
+
+    public static class Parent {
+        @Inject
+        X x;
+
+        @Injectable
+        Child child = new Child();
+
+        private Child sibling = new Child();
+
+        @Injectable
+        public Child getSibling() {
+            return sibling;
+        }
+    }
+
+    public static class Child {
+        @Inject
+        X x;
+
+        @Injectable
+        Parent parent;
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.resources;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryTest {
+
+    private Retry retry() {
+        return new Retry() {
+            @Override
+            public boolean shouldRetry(Throwable th) {
+                return th instanceof IllegalStateException;
+            }
+        };
+    }
+
+    @Test
+    void retryUntilSuccess() throws Throwable {
+        Retry retry = retry();
+        retry.setBackoff(new ExponentialBackoff(1, 5));
+        AtomicInteger calls = new AtomicInteger();
+        String ret = retry.retry(() -> {
+            if (calls.incrementAndGet() < 3)
+                throw new IllegalStateException();
+            return "done";
+        });
+        assertEquals("done", ret);
+        assertEquals(2, retry.getAttempts());
+        assertEquals(1, retry.getSuccesses());
+        assertEquals(0, retry.getExhausted());
+    }
+
+    @Test
+    void exhausted() {
+        Retry retry = retry();
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> retry.retry(new IllegalStateException(), () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, retry.getExhausted());
+
+        assertThrows(IllegalArgumentException.class, () -> retry.retry(() -> {
+            throw new IllegalArgumentException();
+        }));
+        assertEquals(1, retry.getExhausted()); // not retryable
+
+        // the last error at the limit is not retryable
+        calls.set(0);
+        assertThrows(IllegalArgumentException.class, () -> retry.retry(new IllegalStateException(), () -> {
+            if (calls.incrementAndGet() < 3)
+                throw new IllegalStateException();
+            throw new IllegalArgumentException();
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, retry.getExhausted());
+    }
+
+    @Test
+    void budget() {
+        Retry retry = retry();
+        retry.setLimit(10);
+        RetryBudget budget = new RetryBudget(0.001, 2);
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> retry.retry(new IllegalStateException(), budget, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(2, calls.get());
+        assertEquals(1, budget.getRejected());
+        assertEquals(1, retry.getDenied());
+        assertEquals(0, retry.getExhausted());
+    }
+
+    @Test
+    void exponentialBackoff() {
+        ExponentialBackoff backoff = new ExponentialBackoff(10, 100);
+        backoff.setJitter(false);
+        assertEquals(10, backoff.delay(1));
+        assertEquals(20, backoff.delay(2));
+        assertEquals(100, backoff.delay(10));
+        backoff.setJitter(true);
+        for (int i = 1; i < 20; i++) {
+            long delay = backoff.delay(i);
+            assertTrue(delay >= 0 && delay <= 100);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.subscribe;
+
+import net.e6tech.elements.common.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tags.Common
+class DefaultBroadcastTest {
+
+    @Test
+    void publish() throws Exception {
+        DefaultBroadcast broadcast = new DefaultBroadcast();
+        broadcast.setThreadPool(Executors.newFixedThreadPool(4));
+        broadcast.setBatchSize(16);
+        int count = 1000;
+        CountDownLatch latch = new CountDownLatch(count);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        Subscriber<Integer> subscriber = notice -> {
+            received.add(notice.getUserObject());
+            latch.countDown();
+        };
+        broadcast.subscribe(Integer.class, subscriber);
+        for (int i = 0; i < count; i++)
+            broadcast.publish(Integer.class, i);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++)  // delivered in order to a subscriber
+            assertEquals(i, received.get(i));
+
+        broadcast.unsubscribe(Integer.class, subscriber);
+        broadcast.publish(Integer.class, count);
+        Thread.sleep(100L);
+        assertEquals(count, received.size());
+        assertTrue(broadcast.mailboxes.isEmpty());
+    }
+}
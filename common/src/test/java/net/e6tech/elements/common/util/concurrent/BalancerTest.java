@@ -123,6 +123,79 @@ class BalancerTest {
         assertEquals(available, balancer.getAvailable());
     }
 
+    @Test
+    void shared() throws Exception {
+        for (Balancer.Mode mode : new Balancer.Mode[] { Balancer.Mode.LEAST_LOADED, Balancer.Mode.PEAK_EWMA }) {
+            MyBalancer balancer = new MyBalancer();
+            balancer.mode(mode);
+            balancer.setTimeout(100L);
+            balancer.setRecoveryPeriod(50L);
+            for (int i = 0; i < 4; i++)
+                balancer.addService(new ServiceImpl());
+            balancer.start();
+            int available = balancer.getAvailable();
+            assertEquals(4, available);
+
+            int count = 50;
+            Thread[] threads = new Thread[count];
+            for (int i = 0; i < count; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        try {
+                            balancer.getService().run();
+                        } catch (Throwable th) {
+                        }
+                    }
+                });
+            }
+            for (int i = 0; i < count; i++) {
+                threads[i].start();
+            }
+            for (int i = 0; i < count; i++) {
+                threads[i].join();
+            }
+
+            Thread.sleep(500L);
+            assertEquals(available, balancer.getAvailable());
+            balancer.stop();
+        }
+    }
+
+    @Test
+    void recoveredAtStart() throws Exception {
+        MyBalancer balancer = new MyBalancer();
+        balancer.mode(Balancer.Mode.LEAST_LOADED);
+        balancer.setRecoveryPeriod(50L);
+        balancer.addService(new ServiceImpl());
+        balancer.addService(new ServiceImpl() {
+            private boolean started;
+            @Override
+            public void start() {
+                if (!started) {
+                    started = true;
+                    throw new IllegalStateException("first start fails");
+                }
+            }
+        });
+        balancer.addService(new ServiceImpl() {  // slow to start, giving recovery time to restart the failed one
+            @Override
+            public void start() {
+                try {
+                    Thread.sleep(200L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        balancer.start();
+
+        long deadline = System.currentTimeMillis() + 2000L;
+        while (balancer.getAvailable() < 3 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10L);
+        assertEquals(3, balancer.getAvailable());
+        balancer.stop();
+    }
+
     public static class MyBalancer extends Balancer<Service> {
 
         @Override
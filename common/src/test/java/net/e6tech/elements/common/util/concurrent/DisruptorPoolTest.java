@@ -19,9 +19,15 @@ package net.e6tech.elements.common.util.concurrent;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SuppressWarnings("squid:S2925")
 public class DisruptorPoolTest {
@@ -71,4 +77,49 @@ public class DisruptorPoolTest {
 
         Thread.sleep(2000L); // wait for runAsync
     }
+
+    @Test
+    void submitFromManyThreads() throws Exception {
+        DisruptorConfig config = new DisruptorConfig();
+        config.setHandlerSize(4);
+        config.setWaitStrategy(DisruptorConfig.WaitStrategyType.BLOCKING);
+        DisruptorPool pool = new DisruptorPool(config);
+
+        int producers = 8;
+        int tasks = 1000;
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                List<CompletableFuture<Integer>> list = new ArrayList<>();
+                for (int j = 0; j < tasks; j++)
+                    list.add(pool.submit(() -> 1));
+                synchronized (futures) {
+                    futures.addAll(list);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        int sum = 0;
+        for (CompletableFuture<Integer> future : futures)
+            sum += future.get(5, TimeUnit.SECONDS);
+        assertEquals(producers * tasks, sum);
+
+        CompletableFuture<Integer> failed = pool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertEquals(IllegalStateException.class, ex.getCause().getClass());
+
+        CompletableFuture<Integer> error = pool.submit(() -> {
+            throw new AssertionError();
+        });
+        ex = assertThrows(ExecutionException.class, () -> error.get(5, TimeUnit.SECONDS));
+        assertEquals(AssertionError.class, ex.getCause().getClass());
+        assertEquals(1, pool.submit(() -> 1).get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
 }
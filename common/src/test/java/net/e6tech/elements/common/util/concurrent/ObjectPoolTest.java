@@ -20,8 +20,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ObjectPoolTest {
 
@@ -46,6 +48,32 @@ class ObjectPoolTest {
 
     }
 
+    @Test
+    void concurrent() throws InterruptedException {
+        ObjectPool<X> pool = new ObjectPool<X>().type(X.class).limit(16).build();
+        AtomicInteger duplicates = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    X x1 = pool.checkOut();
+                    X x2 = pool.checkOut();
+                    if (x1 == x2)
+                        duplicates.incrementAndGet();
+                    pool.checkIn(x1);
+                    pool.checkIn(x2);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, duplicates.get());
+        assertTrue(pool.size() > 0);
+        pool.clear();
+        assertEquals(0, pool.size());
+    }
+
     static class X {
     }
 }
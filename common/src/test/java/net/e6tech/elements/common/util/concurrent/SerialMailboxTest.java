@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.util.concurrent;
+
+import net.e6tech.elements.common.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tags.Common
+class SerialMailboxTest {
+
+    @Test
+    void yieldAndRecover() {
+        Queue<Runnable> tasks = new LinkedList<>();
+        List<String> delivered = new ArrayList<>();
+        boolean[] reject = new boolean[1];
+        SerialMailbox<String> mailbox = new SerialMailbox<String>() {
+            @Override
+            protected Executor executor() {
+                return task -> {
+                    if (reject[0])
+                        throw new RejectedExecutionException();
+                    tasks.add(task);
+                };
+            }
+
+            @Override
+            protected int yieldAfter() {
+                return 2;
+            }
+
+            @Override
+            protected int deliver(Queue<String> queue) {
+                String item = queue.poll();
+                if (item == null)
+                    return 0;
+                if ("error".equals(item))
+                    throw new AssertionError(item);
+                delivered.add(item);
+                return 1;
+            }
+        };
+
+        mailbox.post("a");
+        mailbox.post("b");
+        mailbox.post("c");
+        assertEquals(1, tasks.size());  // one drain for all three
+        tasks.poll().run();
+        assertEquals(2, delivered.size());
+        assertEquals(1, tasks.size());  // yielded after two
+        tasks.poll().run();
+        assertEquals(3, delivered.size());
+
+        mailbox.post("error");
+        assertThrows(AssertionError.class, () -> tasks.poll().run());
+        reject[0] = true;
+        assertThrows(RejectedExecutionException.class, () -> mailbox.post("d"));
+        reject[0] = false;
+        mailbox.post("e");
+        tasks.poll().run();
+        assertEquals("e", delivered.get(delivered.size() - 1));
+        assertEquals(5, delivered.size());
+        assertTrue(mailbox.isEmpty());
+    }
+}
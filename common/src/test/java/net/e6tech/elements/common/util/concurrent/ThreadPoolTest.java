@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.common.util.concurrent;
+
+import net.e6tech.elements.common.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+@Tags.Common
+class ThreadPoolTest {
+
+    @Test
+    void bounded() throws Exception {
+        ThreadPool pool = ThreadPool.boundedThreadPool("bounded-test", 1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        pool.execute(() -> {});  // queued
+        assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> {}));
+        assertEquals(1, pool.getRejected());
+        assertEquals(1, pool.getQueueSize());
+        latch.countDown();
+    }
+
+    @Test
+    void async() throws Exception {
+        AsyncImpl<StringBuilder> async = new AsyncImpl<>(new StringBuilder());
+        String name = async.apply(builder -> Thread.currentThread().getName())
+                .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertTrue(name.startsWith(AsyncImpl.DEFAULT_POOL));
+        async.accept(builder -> builder.append("x")).toCompletableFuture().get(1, TimeUnit.SECONDS);
+    }
+}
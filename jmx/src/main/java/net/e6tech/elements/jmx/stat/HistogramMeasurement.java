@@ -0,0 +1,321 @@
+/*
+Copyright 2015-2021 Futeh Kao
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.e6tech.elements.jmx.stat;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free alternative to Measurement with fixed memory.  Samples are counted in log-linear buckets,
+ * in the style of HdrHistogram, so that percentiles are accurate to within 1% of the value and
+ * recording a sample does not allocate.  The window is made up of rotating slices; a slice is
+ * replaced once it falls out of the window, so the statistics cover the last three quarters to
+ * all of windowWidth.
+ */
+@SuppressWarnings({"squid:S00116", "squid:S00117"})
+public class HistogramMeasurement implements Serializable, HistogramMeasurementMXBean {
+
+    private static final long serialVersionUID = 2716301513487318364L;
+    private static final int SUB_BITS = 8;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT >> 1;
+    private static final int MAX_BITS = 40;
+    private static final long MAX_TICKS = (1L << MAX_BITS) - 1;
+    private static final int BUCKETS = SUB_COUNT + (MAX_BITS - SUB_BITS) * HALF_COUNT;
+    private static final int SLICES = 4;
+
+    private String name;
+    private String unit;
+    private double resolution = 1000.0;  // ticks per unit, e.g. microseconds for a unit of ms
+    private long windowWidth = 300000L;  // default is 5 minutes
+    private volatile long sliceWidth = windowWidth / SLICES;
+    private boolean enabled = true;
+    private final LongAdder total = new LongAdder();
+    private transient volatile AtomicReferenceArray<Slice> slices = new AtomicReferenceArray<>(SLICES);
+
+    public HistogramMeasurement() {}
+
+    public HistogramMeasurement(String name, String unit, boolean enabled) {
+        this.name = name;
+        this.unit = unit;
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param resolution number of ticks per unit.  Values are rounded to a tick and values above 2^40 ticks
+     *                   are counted as 2^40 ticks.
+     */
+    public void setResolution(double resolution) {
+        if (resolution <= 0)
+            throw new IllegalArgumentException();
+        this.resolution = resolution;
+        slices = new AtomicReferenceArray<>(SLICES);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getWindowWidth() {
+        return windowWidth;
+    }
+
+    public void setWindowWidth(long windowWidth) {
+        this.windowWidth = windowWidth;
+        this.sliceWidth = Math.max(1L, windowWidth / SLICES);
+        slices = new AtomicReferenceArray<>(SLICES);
+    }
+
+    @Override
+    public long getTotal() {
+        return total.sum();
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot().count;
+    }
+
+    @Override
+    public double getAverage() {
+        Snapshot snapshot = snapshot();
+        return snapshot.count == 0 ? 0.0 : snapshot.sum / snapshot.count;
+    }
+
+    @Override
+    public double getMedian() {
+        return snapshot().percentile(50);
+    }
+
+    @Override
+    public double getSum() {
+        return snapshot().sum;
+    }
+
+    @Override
+    public double getStdDev() {
+        return snapshot().stdDev();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return snapshot().failures;
+    }
+
+    @Override
+    public double getP50() {
+        return snapshot().percentile(50);
+    }
+
+    @Override
+    public double getP90() {
+        return snapshot().percentile(90);
+    }
+
+    @Override
+    public double getP99() {
+        return snapshot().percentile(99);
+    }
+
+    @Override
+    public double getP999() {
+        return snapshot().percentile(99.9);
+    }
+
+    @Override
+    public double getMax() {
+        return snapshot().percentile(100);
+    }
+
+    public double percentile(double percentile) {
+        return snapshot().percentile(percentile);
+    }
+
+    public void fail() {
+        if (!enabled)
+            return;
+        slice().failures.increment();
+    }
+
+    public void add(double value) {
+        if (!enabled)
+            return;
+        total.increment();
+        long ticks = (value <= 0) ? 0 : (long) (value * resolution + 0.5);
+        Slice slice = slice();
+        slice.counts.incrementAndGet(index(Math.min(ticks, MAX_TICKS)));
+        slice.sum.add(value);
+        slice.sumSquares.add(value * value);
+    }
+
+    public HistogramMeasurement append(double value) {
+        add(value);
+        return this;
+    }
+
+    static int index(long ticks) {
+        if (ticks < SUB_COUNT)
+            return (int) ticks;
+        int msb = 63 - Long.numberOfLeadingZeros(ticks);
+        int shift = msb - SUB_BITS + 1;
+        return SUB_COUNT + (msb - SUB_BITS) * HALF_COUNT + (int) ((ticks >> shift) - HALF_COUNT);
+    }
+
+    // the middle of the range of ticks counted by the bucket.
+    static double ticks(int index) {
+        if (index < SUB_COUNT)
+            return index;
+        int offset = index - SUB_COUNT;
+        int shift = offset / HALF_COUNT + 1;
+        long low = (long) (offset % HALF_COUNT + HALF_COUNT) << shift;
+        return low + ((1L << shift) - 1) / 2.0;
+    }
+
+    private Slice slice() {
+        long epoch = System.currentTimeMillis() / sliceWidth;
+        AtomicReferenceArray<Slice> array = slices;
+        int i = (int) (epoch % SLICES);
+        Slice slice = array.get(i);
+        if (slice == null || slice.epoch < epoch) {
+            Slice fresh = new Slice(epoch);
+            if (array.compareAndSet(i, slice, fresh))
+                return fresh;
+            slice = array.get(i);
+        }
+        return slice;
+    }
+
+    private Snapshot snapshot() {
+        long epoch = System.currentTimeMillis() / sliceWidth;
+        AtomicReferenceArray<Slice> array = slices;
+        Snapshot snapshot = new Snapshot();
+        for (int i = 0; i < SLICES; i++) {
+            Slice slice = array.get(i);
+            if (slice != null && slice.epoch > epoch - SLICES && slice.epoch <= epoch)
+                snapshot.add(slice);
+        }
+        return snapshot;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        slices = new AtomicReferenceArray<>(SLICES);
+    }
+
+    public String toString() {
+        Snapshot snapshot = snapshot();
+        StringBuilder builder = new StringBuilder();
+        builder.append("count=" + snapshot.count + ", ");
+        builder.append("average=" + (snapshot.count == 0 ? 0.0 : snapshot.sum / snapshot.count) + ", ");
+        builder.append("median=" + snapshot.percentile(50) + ", ");
+        builder.append("p90=" + snapshot.percentile(90) + ", ");
+        builder.append("p99=" + snapshot.percentile(99) + ", ");
+        builder.append("p999=" + snapshot.percentile(99.9) + ", ");
+        builder.append("max=" + snapshot.percentile(100) + ", ");
+        builder.append("stddev=" + snapshot.stdDev() + ", ");
+        builder.append("failureCount=" + snapshot.failures + ", ");
+        builder.append("windowWidth=" + windowWidth + " ");
+        return builder.toString();
+    }
+
+    private static class Slice {
+        private final long epoch;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final DoubleAdder sum = new DoubleAdder();
+        private final DoubleAdder sumSquares = new DoubleAdder();
+        private final LongAdder failures = new LongAdder();
+
+        Slice(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private class Snapshot {
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private double sum;
+        private double sumSquares;
+        private long failures;
+
+        void add(Slice slice) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = slice.counts.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += slice.sum.sum();
+            sumSquares += slice.sumSquares.sum();
+            failures += slice.failures.sum();
+        }
+
+        double percentile(double percentile) {
+            if (count == 0)
+                return 0.0;
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            int last = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] == 0)
+                    continue;
+                seen += counts[i];
+                last = i;
+                if (seen >= rank)
+                    break;
+            }
+            return ticks(last) / resolution;
+        }
+
+        // Sample standard deviation
+        double stdDev() {
+            if (count <= 1)
+                return 0.0;
+            double average = sum / count;
+            double var = (sumSquares - count * average * average) / (count - 1);
+            return var <= 0 ? 0.0 : Math.sqrt(var);
+        }
+    }
+}
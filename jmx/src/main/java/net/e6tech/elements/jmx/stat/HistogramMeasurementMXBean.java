@@ -0,0 +1,52 @@
+/*
+Copyright 2015-2021 Futeh Kao
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.e6tech.elements.jmx.stat;
+
+/**
+ * A read only view; samples are recorded by calling HistogramMeasurement directly.
+ */
+public interface HistogramMeasurementMXBean {
+
+    String getName();
+
+    String getUnit();
+
+    long getTotal();
+
+    long getCount();
+
+    double getAverage();
+
+    double getMedian();
+
+    double getSum();
+
+    double getStdDev();
+
+    long getWindowWidth();
+
+    long getFailureCount();
+
+    double getP50();
+
+    double getP90();
+
+    double getP99();
+
+    double getP999();
+
+    double getMax();
+}
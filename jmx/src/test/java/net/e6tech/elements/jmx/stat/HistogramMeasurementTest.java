@@ -0,0 +1,94 @@
+/*
+Copyright 2015-2021 Futeh Kao
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.e6tech.elements.jmx.stat;
+
+import net.e6tech.elements.jmx.JMXService;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanInfo;
+import javax.management.ObjectInstance;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramMeasurementTest {
+
+    @Test
+    public void buckets() {
+        for (long ticks = 0; ticks < (1L << 30); ticks = ticks * 3 / 2 + 1) {
+            double mid = HistogramMeasurement.ticks(HistogramMeasurement.index(ticks));
+            assertTrue(Math.abs(mid - ticks) <= Math.max(0.5, ticks * 0.004), "ticks=" + ticks + " mid=" + mid);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        HistogramMeasurement m = new HistogramMeasurement("A", "ms", true);
+        for (int i = 1; i <= 1000; i++)
+            m.append(i);
+        assertEquals(1000, m.getCount());
+        assertEquals(500.5, m.getAverage(), 0.0001);
+        assertEquals(500, m.getP50(), 500 * 0.01);
+        assertEquals(900, m.getP90(), 900 * 0.01);
+        assertEquals(990, m.getP99(), 990 * 0.01);
+        assertEquals(999, m.getP999(), 999 * 0.01);
+        assertEquals(1000, m.getMax(), 1000 * 0.01);
+        assertEquals(288.82, m.getStdDev(), 0.01);
+        m.fail();
+        assertEquals(1, m.getFailureCount());
+        System.out.println(m);
+    }
+
+    @Test
+    @SuppressWarnings("squid:S2925")
+    public void rollingWindow() throws InterruptedException {
+        HistogramMeasurement m = new HistogramMeasurement("A", "ms", true);
+        m.setWindowWidth(200);
+        for (int i = 0; i < 10; i++)
+            m.append(i);
+        assertEquals(10, m.getCount());
+        Thread.sleep(250);
+        assertEquals(0, m.getCount());
+        assertEquals(10, m.getTotal());
+    }
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        HistogramMeasurement m = new HistogramMeasurement("A", "ms", true);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++)
+                    m.add(j % 100);
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(80000, m.getCount());
+    }
+
+    @Test
+    public void readOnlyView() throws Exception {
+        HistogramMeasurement m = new HistogramMeasurement("B", "ms", true);
+        ObjectInstance instance = JMXService.registerIfAbsent("net.e6tech:type=Test,name=B", () -> m);
+        m.add(5);
+        MBeanInfo info = ManagementFactory.getPlatformMBeanServer().getMBeanInfo(instance.getObjectName());
+        assertEquals(0, info.getOperations().length);
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(instance.getObjectName(), "Count"));
+        JMXService.unregisterMBean("net.e6tech:type=Test,name=B");
+    }
+}
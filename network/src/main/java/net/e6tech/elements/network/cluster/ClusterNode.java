@@ -39,6 +39,7 @@ import net.e6tech.elements.common.subscribe.Broadcast;
 import net.e6tech.elements.common.util.SystemException;
 import net.e6tech.elements.network.cluster.invocation.Registry;
 import net.e6tech.elements.network.cluster.invocation.RegistryImpl;
+import net.e6tech.elements.network.cluster.invocation.Routing;
 import net.e6tech.elements.network.cluster.messaging.Messaging;
 
 import java.util.*;
@@ -56,6 +57,9 @@ public class ClusterNode implements Initializable {
     private Class<? extends Registry> registryClass = RegistryImpl.class;
     private boolean started = false;
     private long timeout = DEFAULT_TIME_OUT;
+    private Routing routing = Routing.ROUND_ROBIN;
+    private int batchSize = 0;
+    private long batchWindow = 5;
 
     public long getTimeout() {
         return timeout;
@@ -69,6 +73,36 @@ public class ClusterNode implements Initializable {
             registry.setTimeout(timeout);
     }
 
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+        if (registry != null)
+            registry.setRouting(routing);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        if (registry != null)
+            registry.setBatchSize(batchSize);
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+        if (registry != null)
+            registry.setBatchWindow(batchWindow);
+    }
+
     public String getName() {
         return name;
     }
@@ -163,6 +197,9 @@ public class ClusterNode implements Initializable {
                 throw new SystemException(e);
             }
             registry.setTimeout(timeout);
+            registry.setRouting(routing);
+            registry.setBatchSize(batchSize);
+            registry.setBatchWindow(batchWindow);
         }
 
         broadcast.start(genesis.getGuardian());
@@ -30,6 +30,7 @@ import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
 import com.esotericsoftware.kryo.util.Pool;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.typesafe.config.Config;
 import net.e6tech.elements.common.util.SystemException;
 import org.objenesis.strategy.SerializingInstantiatorStrategy;
 
@@ -37,18 +38,58 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.invoke.SerializedLambda;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
+/**
+ * Kryo based Akka serializer.  Payloads smaller than compressionThreshold are sent as is; larger ones
+ * are compressed with the configured codec.  Except for the legacy gzip codec, the payload starts with
+ * a one byte codec marker so that the receiver does not need to share the sender's settings.  Gzip
+ * payloads are recognized by their magic number so that messages from older nodes are still readable.
+ * The defaults, gzip with a threshold of 0, keep the wire format of older nodes; other codecs and a
+ * positive threshold produce payloads that only this version can read, so they should be turned on
+ * only after every node of the cluster has been upgraded.
+ *
+ * Classes listed under registration, e.g. invocation, catalyst and messaging events, are registered with
+ * Kryo using the configured ids so that they are written as small integers instead of class names.
+ * The manifest for such a class is "#" followed by its id.  Since every node must agree on the ids,
+ * SerializerCompatChecker rejects a joining node whose registration differs.
+ */
 public class Serializer extends SerializerWithStringManifest {
     private static final String CONFIG = "akka.actor.elements.serializer";
+    static final String REGISTRATION = CONFIG + ".registration";
+    static final int MIN_REGISTRATION_ID = 32; // lower ids are left to Kryo's default registrations
+    private static final byte NONE = 0;
+    private static final byte DEFLATE = 1;
+    private static final int MAX_POOLED_BUFFER = 1024 * 1024;
+    private static final int MAX_IDLE_CODECS = 64;
+    private static final byte[] EMPTY = new byte[0];
     private Pool<Kryo> pool;
     private Pool<Output> outputPool;
+    private Pool<Input> inputPool;
+    // not a Kryo Pool because codecs beyond MAX_IDLE_CODECS must be ended instead of silently dropped.
+    private final Queue<Codec> codecPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCodecs = new AtomicInteger();
     private ActorRefSerializer actorRefSerializer;
     private TypedActorRefSerializer typedActorRefSerializer;
     int compressionLevel = Deflater.BEST_SPEED;
+    int compressionThreshold = 0;
+    String codec = "gzip";
+    private boolean registrationRequired = false;
+    private Map<Class, Integer> registeredIds = new LinkedHashMap<>();
+    private Map<Integer, Class> registeredClasses = new HashMap<>();
     private Cache<String, Class> classCache = CacheBuilder.newBuilder()
             .concurrencyLevel(32)
             .initialCapacity(128)
@@ -61,6 +102,30 @@ public class Serializer extends SerializerWithStringManifest {
             compressionLevel = actorSystem.settings().config().getInt(CONFIG + ".compression");
         }
 
+        if (actorSystem.settings().config().hasPath(CONFIG + ".compression-threshold")) {
+            compressionThreshold = actorSystem.settings().config().getInt(CONFIG + ".compression-threshold");
+        }
+
+        if (actorSystem.settings().config().hasPath(CONFIG + ".codec")) {
+            codec = actorSystem.settings().config().getString(CONFIG + ".codec");
+            if (!"deflate".equals(codec) && !"gzip".equals(codec) && !"none".equals(codec))
+                throw new IllegalArgumentException("Unsupported codec " + codec + ", expecting deflate, gzip or none");
+        }
+
+        if (actorSystem.settings().config().hasPath(CONFIG + ".registration-required")) {
+            registrationRequired = actorSystem.settings().config().getBoolean(CONFIG + ".registration-required");
+        }
+
+        for (Map.Entry<String, Integer> entry : registrations(actorSystem.settings().config()).entrySet()) {
+            try {
+                Class cls = getClass().getClassLoader().loadClass(entry.getKey());
+                registeredIds.put(cls, entry.getValue());
+                registeredClasses.put(entry.getValue(), cls);
+            } catch (ClassNotFoundException e) {
+                throw new SystemException(e);
+            }
+        }
+
         actorRefSerializer = new ActorRefSerializer(actorSystem);
         typedActorRefSerializer = new TypedActorRefSerializer(actorSystem);
 
@@ -68,11 +133,12 @@ public class Serializer extends SerializerWithStringManifest {
             protected Kryo create() {
                 Kryo kryo = new Kryo();
                 kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new SerializingInstantiatorStrategy()));
-                kryo.setRegistrationRequired(false);
+                kryo.setRegistrationRequired(registrationRequired);
                 kryo.addDefaultSerializer(ActorRef.class, actorRefSerializer);
                 kryo.addDefaultSerializer(akka.actor.typed.ActorRef.class, typedActorRefSerializer);
                 kryo.register(SerializedLambda.class);
                 kryo.register(ClosureSerializer.Closure.class, new ClosureSerializer());
+                registeredIds.forEach(kryo::register);
                 return kryo;
             }
         };
@@ -82,6 +148,12 @@ public class Serializer extends SerializerWithStringManifest {
                 return new Output(4096, -1);
             }
         };
+
+        inputPool = new Pool<Input>(true, false, 64) {
+            protected Input create() {
+                return new Input();
+            }
+        };
     }
 
     // Pick a unique identifier for your Serializer,
@@ -92,9 +164,33 @@ public class Serializer extends SerializerWithStringManifest {
         return 6408;
     }
 
+    /**
+     * Reads the class to id mapping under akka.actor.elements.serializer.registration, sorted by class name.
+     */
+    static Map<String, Integer> registrations(Config config) {
+        Map<String, Integer> map = new TreeMap<>();
+        if (!config.hasPath(REGISTRATION))
+            return map;
+
+        Map<Integer, String> ids = new HashMap<>();
+        for (Map.Entry<String, Object> entry : config.getObject(REGISTRATION).unwrapped().entrySet()) {
+            if (!(entry.getValue() instanceof Number))
+                throw new IllegalArgumentException("Registration id for " + entry.getKey() + " is not a number: " + entry.getValue());
+            int id = ((Number) entry.getValue()).intValue();
+            if (id < MIN_REGISTRATION_ID)
+                throw new IllegalArgumentException("Registration id for " + entry.getKey() + " must be at least " + MIN_REGISTRATION_ID);
+            String existing = ids.put(id, entry.getKey());
+            if (existing != null)
+                throw new IllegalArgumentException("Registration id " + id + " is used by both " + existing + " and " + entry.getKey());
+            map.put(entry.getKey(), id);
+        }
+        return map;
+    }
+
     @Override
     public String manifest(Object obj) {
-        return obj.getClass().getName();
+        Integer id = registeredIds.get(obj.getClass());
+        return (id != null) ? "#" + id : obj.getClass().getName();
     }
 
     // "toBinary" serializes the given object to an Array of Bytes
@@ -102,21 +198,84 @@ public class Serializer extends SerializerWithStringManifest {
     public byte[] toBinary(Object obj) {
         Kryo kryo = pool.obtain();
         Output output = outputPool.obtain();
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            output.setOutputStream(null);
+            kryo.writeObject(output, obj);
+            int length = output.position();
+            if (length < compressionThreshold || "none".equals(codec)) {
+                byte[] bytes = new byte[length + 1];
+                bytes[0] = NONE;
+                System.arraycopy(output.getBuffer(), 0, bytes, 1, length);
+                return bytes;
+            } else if ("gzip".equals(codec)) {
+                return gzip(output.getBuffer(), length);
+            } else {
+                return deflate(output.getBuffer(), length);
+            }
+        } finally {
+            pool.free(kryo);
+            if (output.getBuffer().length > MAX_POOLED_BUFFER)
+                output.setBuffer(new byte[4096], -1);
+            outputPool.free(output);
+        }
+    }
+
+    private Codec obtainCodec() {
+        Codec c = codecPool.poll();
+        if (c == null)
+            return new Codec(compressionLevel);
+        idleCodecs.decrementAndGet();
+        return c;
+    }
+
+    private void freeCodec(Codec c) {
+        c.release();
+        if (idleCodecs.incrementAndGet() <= MAX_IDLE_CODECS) {
+            codecPool.offer(c);
+        } else {
+            idleCodecs.decrementAndGet();
+            c.end();
+        }
+    }
+
+    private byte[] gzip(byte[] buffer, int length) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 32);
              GZIPOutputStream zos = new GZIPOutputStream(bos) {
                  {
                      this.def.setLevel(compressionLevel);
                  }
              }) {
-            output.setOutputStream(zos);
-            kryo.writeObject(output, obj);
-            output.close();
+            zos.write(buffer, 0, length);
+            zos.finish();
             return bos.toByteArray();
         } catch (IOException ex) {
             throw new SystemException(ex);
+        }
+    }
+
+    // layout: DEFLATE marker, uncompressed length (4 bytes), raw deflate data.
+    private byte[] deflate(byte[] buffer, int length) {
+        Codec c = obtainCodec();
+        try {
+            Deflater deflater = c.deflater;
+            deflater.reset();
+            deflater.setInput(buffer, 0, length);
+            deflater.finish();
+            byte[] out = c.buffer(length + (length >> 12) + (length >> 14) + 32);
+            out[0] = DEFLATE;
+            out[1] = (byte) (length >>> 24);
+            out[2] = (byte) (length >>> 16);
+            out[3] = (byte) (length >>> 8);
+            out[4] = (byte) length;
+            int position = 5;
+            while (!deflater.finished()) {
+                if (position == out.length)
+                    out = c.grow();
+                position += deflater.deflate(out, position, out.length - position);
+            }
+            return Arrays.copyOf(out, position);
         } finally {
-            pool.free(kryo);
-            outputPool.free(output);
+            freeCodec(c);
         }
     }
 
@@ -125,9 +284,10 @@ public class Serializer extends SerializerWithStringManifest {
     @SuppressWarnings("unchecked")
     @Override
     public Object fromBinary(byte[] bytes, String manifest) {
-        Kryo kryo = pool.obtain();
-        Class cls = classCache.getIfPresent(manifest);
-        if (cls == null) {
+        Class cls = (manifest.charAt(0) == '#') ? registeredClasses.get(Integer.parseInt(manifest.substring(1))) : classCache.getIfPresent(manifest);
+        if (cls == null && manifest.charAt(0) == '#') {
+            throw new SystemException("No class registered with id " + manifest.substring(1));
+        } else if (cls == null) {
             try {
                 cls = getClass().getClassLoader().loadClass(manifest);
                 classCache.put(manifest, cls);
@@ -136,6 +296,48 @@ public class Serializer extends SerializerWithStringManifest {
             }
         }
 
+        if (bytes.length > 1 && bytes[0] == (byte) 0x1f && bytes[1] == (byte) 0x8b) // gzip magic number
+            return gunzip(bytes, cls);
+
+        Kryo kryo = pool.obtain();
+        Input input = inputPool.obtain();
+        Codec c = null;
+        try {
+            if (bytes[0] == NONE) {
+                input.setBuffer(bytes, 1, bytes.length - 1);
+            } else if (bytes[0] == DEFLATE) {
+                int length = ((bytes[1] & 0xff) << 24) | ((bytes[2] & 0xff) << 16) | ((bytes[3] & 0xff) << 8) | (bytes[4] & 0xff);
+                c = obtainCodec();
+                Inflater inflater = c.inflater;
+                inflater.reset();
+                inflater.setInput(bytes, 5, bytes.length - 5);
+                byte[] out = c.buffer(length);
+                int position = 0;
+                while (position < length) {
+                    int n = inflater.inflate(out, position, length - position);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput()))
+                        throw new SystemException("Truncated payload for " + manifest);
+                    position += n;
+                }
+                input.setBuffer(out, 0, length);
+            } else {
+                throw new SystemException("Unknown codec " + bytes[0] + " for " + manifest);
+            }
+            return kryo.readObject(input, cls);
+        } catch (DataFormatException ex) {
+            throw new SystemException(ex);
+        } finally {
+            input.setBuffer(EMPTY);
+            inputPool.free(input);
+            pool.free(kryo);
+            if (c != null)
+                freeCodec(c);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object gunzip(byte[] bytes, Class cls) {
+        Kryo kryo = pool.obtain();
         try (GZIPInputStream zin = new GZIPInputStream(new ByteArrayInputStream(bytes));
              Input input = new Input(zin)) {
             return kryo.readObject(input, cls);
@@ -146,6 +348,38 @@ public class Serializer extends SerializerWithStringManifest {
         }
     }
 
+    // pooled Deflater/Inflater together with a scratch buffer.
+    private static class Codec {
+        final Deflater deflater;
+        final Inflater inflater = new Inflater(true);
+        byte[] buffer = new byte[4096];
+
+        Codec(int level) {
+            deflater = new Deflater(level, true);
+        }
+
+        byte[] buffer(int size) {
+            if (buffer.length < size)
+                buffer = new byte[size];
+            return buffer;
+        }
+
+        byte[] grow() {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            return buffer;
+        }
+
+        void release() {
+            if (buffer.length > MAX_POOLED_BUFFER)
+                buffer = new byte[4096];
+        }
+
+        void end() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+
     public class ActorRefSerializer extends com.esotericsoftware.kryo.Serializer<ActorRef> {
         private final ExtendedActorSystem system;
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.network.cluster;
+
+import akka.cluster.ConfigValidation;
+import akka.cluster.Invalid;
+import akka.cluster.JoinConfigCompatChecker;
+import akka.cluster.Valid$;
+import akka.japi.Util;
+import com.typesafe.config.Config;
+import scala.collection.immutable.Seq;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Refuses a joining node whose Kryo class registration differs from this node's, since both sides
+ * must map the same ids to the same classes.  Enabled in remote.conf under
+ * akka.cluster.configuration-compatibility-check.checkers.
+ */
+public class SerializerCompatChecker extends JoinConfigCompatChecker {
+
+    @Override
+    public Seq<String> requiredKeys() {
+        return Util.immutableSeq(Collections.singletonList(Serializer.REGISTRATION));
+    }
+
+    @Override
+    public ConfigValidation check(Config toCheck, Config actualConfig) {
+        Map<String, Integer> joining;
+        try {
+            joining = Serializer.registrations(toCheck);
+        } catch (IllegalArgumentException ex) {
+            return new Invalid(Util.immutableSeq(Collections.singletonList(ex.getMessage())));
+        }
+
+        Map<String, Integer> local = Serializer.registrations(actualConfig);
+        if (joining.equals(local))
+            return Valid$.MODULE$;
+        return new Invalid(Util.immutableSeq(Collections.singletonList(
+                Serializer.REGISTRATION + " differs, joining node has " + joining + " but this node has " + local)));
+    }
+}
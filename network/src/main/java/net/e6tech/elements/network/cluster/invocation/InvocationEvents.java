@@ -70,6 +70,7 @@ public interface InvocationEvents extends Serializable {
         private static final long serialVersionUID = -264975294117974773L;
         private transient RegisterReference reference;
         private transient Object[] arguments;
+        private transient Object routingKey; // only used by the local Registrar, not sent
         private long timeout;
 
         public Request(ActorRef<InvocationEvents.Response> sender, String path, long timeout, Object[] arguments)  {
@@ -87,6 +88,14 @@ public interface InvocationEvents extends Serializable {
             return timeout;
         }
 
+        public Object getRoutingKey() {
+            return routingKey;
+        }
+
+        public void setRoutingKey(Object routingKey) {
+            this.routingKey = routingKey;
+        }
+
         public void write(Kryo kryo, Output out) {
             kryo.writeObjectOrNull(out, arguments, Object[].class);
             kryo.writeObjectOrNull(out, reference, RegisterReference.class);
@@ -160,4 +169,39 @@ public interface InvocationEvents extends Serializable {
             return reference.getPath();
         }
     }
+
+    /**
+     * Requests for the same path coalesced by Registrar and sent to a RegistryEntry in one message.
+     * The RegistryEntry answers each request to its sender as soon as it completes, the same way as a single Request.
+     */
+    class Batch implements InvocationEvents {
+        private RegisterReference reference;
+        private Request[] requests;
+
+        public Batch(String path, Request[] requests) {
+            this.reference = new RegisterReference(path);
+            this.requests = requests;
+        }
+
+        public String getPath() {
+            return reference.getPath();
+        }
+
+        public Request[] getRequests() {
+            return requests;
+        }
+    }
+
+    // local timer message telling Registrar to send pending requests for the path.
+    class Flush implements InvocationEvents {
+        private String path;
+
+        public Flush(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+    }
 }
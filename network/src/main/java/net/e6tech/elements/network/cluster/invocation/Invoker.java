@@ -20,16 +20,54 @@ import akka.actor.typed.ActorRef;
 import net.e6tech.elements.common.util.SystemException;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Invoker implements Serializable {
     private static final long serialVersionUID = -7148919144897051958L;
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
 
-    @SuppressWarnings("squid:S1172")
+    // filled by RegistryImpl.register; methods without an entry fall back to Method.invoke.
+    private transient Map<Method, MethodHandle> handles;
+
+    /**
+     * Compiles the method into a MethodHandle taking the target and the argument array so that
+     * invoke does not go through reflection.
+     */
+    protected void compile(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKE_TYPE);
+            synchronized (this) {
+                if (handles == null)
+                    handles = new ConcurrentHashMap<>();
+            }
+            handles.put(method, handle);
+        } catch (IllegalAccessException e) {
+            // left to Method.invoke
+        }
+    }
+
+    @SuppressWarnings({"squid:S1172", "squid:S1181"})
     public Object invoke(ActorRef actor, Object target, Method method, Object[] arguments) {
+        MethodHandle handle = (handles == null) ? null : handles.get(method);
+        if (handle == null) {
+            try {
+                return method.invoke(target, arguments);
+            } catch (Exception e) {
+                throw new SystemException(e);
+            }
+        }
+
         try {
-            return method.invoke(target, arguments);
-        } catch (Exception e) {
+            return handle.invokeExact(target, arguments);
+        } catch (Throwable e) {
             throw new SystemException(e);
         }
     }
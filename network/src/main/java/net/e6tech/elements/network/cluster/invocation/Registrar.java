@@ -32,8 +32,10 @@ import net.e6tech.elements.common.actor.typed.Typed;
 import net.e6tech.elements.common.resources.NotAvailableException;
 import scala.concurrent.ExecutionContextExecutor;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static net.e6tech.elements.network.cluster.invocation.InvocationEvents.*;
 
@@ -42,6 +44,9 @@ public class Registrar extends Receptor<InvocationEvents, Registrar> {
     private Map<String, ActorRef<InvocationEvents.Request>> routes = new HashMap<>(); // key is the context@method
     private Map<String, Set<ActorRef<?>>> actors = new ConcurrentHashMap<>();
     private Map<ActorRef<?>, String> actorKeys = new ConcurrentHashMap<>();
+    private Map<String, Route> selections = new HashMap<>(); // key is the context@method, used when routing is not ROUND_ROBIN
+    private Map<ActorRef<?>, Latency> latencies = new ConcurrentHashMap<>();
+    private Map<String, List<Request>> pending = new HashMap<>(); // requests waiting to be batched, key is the path
     private RegistryImpl registry;
 
     public Registrar(RegistryImpl registry) {
@@ -118,6 +123,7 @@ public class Registrar extends Receptor<InvocationEvents, Registrar> {
                 }
             }
             actors.put(key.id(), new LinkedHashSet<>(listing.getServiceInstances(key)));
+            selections.put(key.id(), new Route(actors.get(key.id())));
         }
     }
 
@@ -128,11 +134,77 @@ public class Registrar extends Receptor<InvocationEvents, Registrar> {
         ActorRef<InvocationEvents.Request> router = routes.get(request.getPath());
         if (router == null) {
             request.getSender().tell(new Status.Failure(new NotAvailableException("Service not available.")));
+        } else if (registry.getBatchSize() > 1) {
+            List<Request> list = pending.computeIfAbsent(request.getPath(), k -> new ArrayList<>());
+            list.add(request);
+            if (list.size() >= registry.getBatchSize()) {
+                flush(new Flush(request.getPath()));
+            } else if (list.size() == 1) {
+                getContext().scheduleOnce(Duration.ofMillis(registry.getBatchWindow()), getSelf(), new Flush(request.getPath()));
+            }
         } else {
+            dispatch(router, request);
+        }
+    }
+
+    private void dispatch(ActorRef<InvocationEvents.Request> router, Request request) {
+        Routing routing = registry.getRouting();
+        ActorRef<InvocationEvents.Request> selected = null;
+        if (routing != Routing.ROUND_ROBIN) {
+            Route route = selections.get(request.getPath());
+            if (route != null)
+                selected = route.select(routing, request);
+        }
+
+        // the router also covers the period before the first listing arrives.
+        if (selected != null)
+            selected.tell(request);
+        else
             router.tell(request);
+    }
+
+    // sends pending requests of a path, grouped by target; only consistent hashing may split a batch.
+    @SuppressWarnings("unchecked")
+    @Typed
+    private void flush(Flush flush) {
+        List<Request> list = pending.remove(flush.getPath());
+        if (list == null || list.isEmpty())
+            return;
+
+        ActorRef<InvocationEvents.Request> router = routes.get(flush.getPath());
+        Route route = selections.get(flush.getPath());
+        Routing routing = registry.getRouting();
+        if (list.size() == 1 || route == null || route.refs.length == 0) {
+            for (Request request : list)
+                dispatch(router, request);
+            return;
+        }
+
+        Map<ActorRef<Request>, List<Request>> targets = new LinkedHashMap<>();
+        ActorRef<Request> target = (routing == Routing.CONSISTENT_HASH) ? null : route.select(routing, list.get(0));
+        for (Request request : list) {
+            ActorRef<Request> ref = (target != null) ? target : route.select(routing, request);
+            targets.computeIfAbsent(ref, k -> new ArrayList<>()).add(request);
+        }
+
+        for (Map.Entry<ActorRef<Request>, List<Request>> entry : targets.entrySet()) {
+            List<Request> requests = entry.getValue();
+            if (requests.size() == 1)
+                entry.getKey().tell(requests.get(0));
+            else
+                entry.getKey().unsafeUpcast().tell(new Batch(flush.getPath(), requests.toArray(new Request[0])));
         }
     }
 
+    /**
+     * Records the response time of a registration as seen by the caller.  Called from RegistryImpl outside
+     * of this actor, hence the concurrent map.
+     */
+    void observe(ActorRef<?> responder, long nanos) {
+        if (responder != null)
+            latencies.computeIfAbsent(responder, k -> new Latency()).update(nanos);
+    }
+
     // received terminated from RegistryEntry
     @Typed
     private void terminated(Terminated terminated) {
@@ -147,7 +219,10 @@ public class Registrar extends Receptor<InvocationEvents, Registrar> {
                 }
             }
             actorKeys.remove(actor);
+            if (key != null)
+                selections.put(key, new Route(actors.getOrDefault(key, Collections.emptySet())));
         }
+        latencies.remove(actor);
 
         if (key != null)
             registry.onTerminated(key, actor);
@@ -163,4 +238,107 @@ public class Registrar extends Receptor<InvocationEvents, Registrar> {
             message.getSender().tell(new Response(getSelf(), actorsForKey));
         }
     }
+
+    // exponentially weighted average that decays toward zero while no sample arrives, so that a registration
+    // that was slow once is tried again later instead of starving.
+    private static class Latency {
+        private static final double DECAY_NANOS = 10_000_000_000.0;
+        private double average = -1;
+        private long stamp = System.nanoTime();
+
+        synchronized void update(long nanos) {
+            long now = System.nanoTime();
+            average = (average < 0) ? nanos : average(now) * 0.8 + nanos * 0.2;
+            stamp = now;
+        }
+
+        synchronized double average(long now) {
+            if (average < 0)
+                return 0;
+            return average * Math.exp(-Math.max(0L, now - stamp) / DECAY_NANOS);
+        }
+    }
+
+    // snapshot of the registrations of a path, rebuilt when the listing changes.
+    @SuppressWarnings("unchecked")
+    private class Route {
+        private final ActorRef<Request>[] refs;
+        private final ActorRef<Request>[] locals;
+        private final int[] hashes;
+        private int next;
+
+        Route(Set<ActorRef<?>> set) {
+            refs = set.toArray(new ActorRef[0]);
+            locals = set.stream().filter(ref -> ref.path().address().hasLocalScope()).toArray(ActorRef[]::new);
+            hashes = new int[refs.length];
+            for (int i = 0; i < refs.length; i++)
+                hashes[i] = refs[i].path().toString().hashCode();
+        }
+
+        ActorRef<Request> select(Routing routing, Request request) {
+            if (refs.length == 0)
+                return null;
+
+            switch (routing) {
+                case LOCAL_FIRST:
+                    return roundRobin(locals.length > 0 ? locals : refs);
+                case LATENCY:
+                    return fastest();
+                case CONSISTENT_HASH:
+                    return hashed(request);
+                default:
+                    return roundRobin(refs);
+            }
+        }
+
+        private ActorRef<Request> roundRobin(ActorRef<Request>[] candidates) {
+            next = (next + 1) & Integer.MAX_VALUE;
+            return candidates[next % candidates.length];
+        }
+
+        // power of two choices over the decayed averages; a registration without a sample counts as 0.
+        private ActorRef<Request> fastest() {
+            if (refs.length == 1)
+                return refs[0];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(refs.length);
+            int second = random.nextInt(refs.length - 1);
+            if (second >= first)
+                second++;
+            long now = System.nanoTime();
+            return (average(refs[first], now) <= average(refs[second], now)) ? refs[first] : refs[second];
+        }
+
+        private double average(ActorRef<Request> ref, long now) {
+            Latency latency = latencies.get(ref);
+            return (latency == null) ? 0 : latency.average(now);
+        }
+
+        // rendezvous hashing: only the keys of a departed registration move when the listing changes.
+        private ActorRef<Request> hashed(Request request) {
+            Object key = request.getRoutingKey();
+            if (key == null && request.arguments() != null && request.arguments().length > 0)
+                key = request.arguments()[0];
+            if (key == null)
+                return roundRobin(refs);
+
+            int keyHash = key.hashCode();
+            ActorRef<Request> best = null;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < refs.length; i++) {
+                long weight = mix(((long) keyHash << 32) ^ hashes[i]);
+                if (best == null || weight > max) {
+                    max = weight;
+                    best = refs[i];
+                }
+            }
+            return best;
+        }
+
+        private long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
 }
@@ -41,6 +41,22 @@ public interface Registry {
 
     void setTimeout(long timeout);
 
+    Routing getRouting();
+
+    void setRouting(Routing routing);
+
+    int getBatchSize();
+
+    /**
+     * @param batchSize when greater than one, requests for the same path are coalesced into one message
+     *                  of up to batchSize requests or whatever accumulated within the batch window.
+     */
+    void setBatchSize(int batchSize);
+
+    long getBatchWindow();
+
+    void setBatchWindow(long batchWindow);
+
     void addRouteListener(RouteListener listener);
 
     void removeRouteListener(RouteListener listener);
@@ -106,6 +122,11 @@ public interface Registry {
 
     Function<Object[], CompletionStage<InvocationEvents.Response>> route(String path, long timeout);
 
+    /**
+     * @param routingKey computes the key from the arguments for Routing.CONSISTENT_HASH, may be null.
+     */
+    Function<Object[], CompletionStage<InvocationEvents.Response>> route(String path, long timeout, Function<Object[], Object> routingKey);
+
     <T> ClusterAsync<T> async(String qualifier, Class<T> interfaceClass);
 
     <T> ClusterAsync<T> async(String qualifier, Class<T> interfaceClass, long timeout);
@@ -36,9 +36,21 @@ public class RegistryEntry extends Receptor<InvocationEvents.Request, RegistryEn
             registration.getSender().tell(this.getSelf());
     }
 
-    @SuppressWarnings("unchecked")
     @Typed
     private void request(InvocationEvents.Request request) {
+        invoke(request);
+    }
+
+    // runs each request of the batch like a single request; each result goes to its sender as soon as it is ready
+    // so that a slow call does not hold back the rest of the batch.
+    @Typed
+    private void batch(InvocationEvents.Batch batch) {
+        for (InvocationEvents.Request request : batch.getRequests())
+            invoke(request);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invoke(InvocationEvents.Request request) {
         final ActorRef sender = request.getSender();
         final ActorRef self = getSelf();
         try {
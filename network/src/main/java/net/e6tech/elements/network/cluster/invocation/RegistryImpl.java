@@ -44,6 +44,9 @@ public class RegistryImpl implements Registry {
     private Registrar registrar;
     private ExecutionContextExecutor dispatcher;
     private long timeout = ClusterNode.DEFAULT_TIME_OUT;
+    private Routing routing = Routing.ROUND_ROBIN;
+    private int batchSize = 0;
+    private long batchWindow = 5; // in milliseconds; subject to the resolution of akka.scheduler.tick-duration
     private List<RouteListener> listeners = Collections.synchronizedList(new ArrayList<>());
 
     public static String getPath() {
@@ -62,6 +65,30 @@ public class RegistryImpl implements Registry {
         this.timeout = timeout;
     }
 
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = (routing == null) ? Routing.ROUND_ROBIN : routing;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
     public void addRouteListener(RouteListener listener) {
         listeners.add(listener);
     }
@@ -176,6 +203,7 @@ public class RegistryImpl implements Registry {
                     customizedInvoker = new Invoker();
                 }
                 Invoker invoker = customizedInvoker;
+                invoker.compile(method);
                 list.add((CompletableFuture) register(fullyQualify(qualifier, interfaceClass, method),
                         (actor, args) -> invoker.invoke(actor, implementation, method, args)).toCompletableFuture());
             }
@@ -221,7 +249,26 @@ public class RegistryImpl implements Registry {
     }
 
     public Function<Object[], CompletionStage<InvocationEvents.Response>> route(String path, long timeout) {
-        return arguments -> registrar.talk(timeout).ask(ref -> new InvocationEvents.Request(ref, path, timeout, arguments));
+        return route(path, timeout, null);
+    }
+
+    public Function<Object[], CompletionStage<InvocationEvents.Response>> route(String path, long timeout, Function<Object[], Object> routingKey) {
+        return arguments -> {
+            long start = System.nanoTime();
+            CompletionStage<InvocationEvents.Response> stage = registrar.talk(timeout).ask(ref -> {
+                InvocationEvents.Request request = new InvocationEvents.Request(ref, path, timeout, arguments);
+                if (routingKey != null)
+                    request.setRoutingKey(routingKey.apply(arguments));
+                return request;
+            });
+            if (routing == Routing.LATENCY) {
+                stage = stage.whenComplete((response, exception) -> {
+                    if (response != null)
+                        registrar.observe(response.getResponder(), System.nanoTime() - start);
+                });
+            }
+            return stage;
+        };
     }
 
     public <T> ClusterAsync<T> async(String qualifier, Class<T> interfaceClass) {
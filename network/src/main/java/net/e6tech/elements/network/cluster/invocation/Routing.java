@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.network.cluster.invocation;
+
+/**
+ * How Registrar picks one of the registrations of a path.
+ */
+public enum Routing {
+    /* round robin through an Akka group router, the original behavior. */
+    ROUND_ROBIN,
+
+    /* a registration in the same actor system when there is one, otherwise round robin. */
+    LOCAL_FIRST,
+
+    /* the registration with the lowest observed response time. */
+    LATENCY,
+
+    /* rendezvous hashing of the routing key supplied to Registry.route, or the first argument if none is supplied,
+       so that the same key keeps going to the same registration as long as it is available. */
+    CONSISTENT_HASH
+}
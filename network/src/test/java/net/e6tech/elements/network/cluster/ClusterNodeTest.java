@@ -24,6 +24,7 @@ import net.e6tech.elements.network.cluster.invocation.Registry;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -31,6 +32,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 public class ClusterNodeTest {
 
     public static ClusterNode create(int port) {
+        return create(port, node -> {});
+    }
+
+    // configure runs before the node starts, i.e. the order used by provisioned nodes.
+    public static ClusterNode create(int port, Consumer<ClusterNode> configure) {
         Config config = ConfigFactory.parseString(
                 "akka.remote.netty.tcp.port = " + port + "\n" +
                         "akka.remote.artery.canonical.port = " + port + "\n" +
@@ -42,6 +48,7 @@ public class ClusterNodeTest {
         genesis.setName("ClusterSystem");
         genesis.initialize(config);
         ClusterNode clusterNode = new ClusterNode();
+        configure.accept(clusterNode);
         clusterNode.initialize(genesis);
         return clusterNode;
     }
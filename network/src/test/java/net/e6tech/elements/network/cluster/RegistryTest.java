@@ -21,7 +21,9 @@ import net.e6tech.elements.common.util.SystemException;
 import net.e6tech.elements.common.util.concurrent.Async;
 import net.e6tech.elements.network.cluster.catalyst.Reactor;
 import net.e6tech.elements.network.cluster.invocation.Invoker;
+import net.e6tech.elements.network.cluster.invocation.InvocationEvents;
 import net.e6tech.elements.network.cluster.invocation.Registry;
+import net.e6tech.elements.network.cluster.invocation.Routing;
 import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
@@ -30,9 +32,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -45,6 +51,10 @@ public class RegistryTest {
         return ClusterNodeTest.create(port);
     }
 
+    public static ClusterNode create(int port, Consumer<ClusterNode> configure) {
+        return ClusterNodeTest.create(port, configure);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void simple1() throws Exception {
@@ -95,6 +105,95 @@ public class RegistryTest {
     }
 
 
+    @Test
+    public void consistentHash() throws Exception {
+        ClusterNode clusterNode = create(2552);
+        clusterNode.setRouting(Routing.CONSISTENT_HASH);
+        Registry registry = clusterNode.getRegistry();
+        registry.register("hashed", (actor, args) -> args[0]);
+        registry.register("hashed", (actor, args) -> args[0]);
+        while (registry.routes("hashed").size() < 2)
+            Thread.sleep(100);
+
+        Map<Object, ActorRef> responders = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            String key = "key" + (i % 4);
+            InvocationEvents.Response response = registry.route("hashed", 5000L, args -> key)
+                    .apply(new Object[] { i })
+                    .toCompletableFuture().get();
+            ActorRef previous = responders.putIfAbsent(key, response.getResponder());
+            if (previous != null)
+                assertEquals(previous, response.getResponder());
+        }
+        clusterNode.shutdown();
+    }
+
+    @Test
+    public void latency() throws Exception {
+        ClusterNode clusterNode = create(2552);
+        clusterNode.setRouting(Routing.LATENCY);
+        Registry registry = clusterNode.getRegistry();
+        registry.register("timed", (actor, args) -> "fast");
+        registry.register("timed", (actor, args) -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        });
+        while (registry.routes("timed").size() < 2)
+            Thread.sleep(100);
+
+        Map<Object, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            Object value = registry.route("timed", 5000L).apply(new Object[] { i }).toCompletableFuture().get().getValue();
+            counts.merge(value, 1, Integer::sum);
+        }
+        assertTrue(counts.getOrDefault("fast", 0) > counts.getOrDefault("slow", 0));
+        clusterNode.shutdown();
+    }
+
+    @Test
+    public void batch() throws Exception {
+        // configured before start, the way provisioned nodes are set up
+        ClusterNode clusterNode = create(2552, node -> {
+            node.setRouting(Routing.ROUND_ROBIN);
+            node.setBatchSize(8);
+            node.setBatchWindow(20);
+        });
+        Registry registry = clusterNode.getRegistry();
+        assertEquals(8, registry.getBatchSize());
+        assertEquals(20, registry.getBatchWindow());
+        registry.register("batched", (actor, args) -> {
+            if ("fail".equals(args[0]))
+                throw new IllegalArgumentException("fail");
+            if ("slow".equals(args[0])) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ((String) args[0]).toUpperCase();
+        });
+        while (registry.routes("batched").size() < 1)
+            Thread.sleep(100);
+
+        CompletableFuture<InvocationEvents.Response> slow = registry.route("batched", 5000L).apply(new Object[] { "slow" }).toCompletableFuture();
+        List<CompletableFuture<InvocationEvents.Response>> futures = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            futures.add(registry.route("batched", 5000L).apply(new Object[] { "call" + i }).toCompletableFuture());
+        CompletableFuture<InvocationEvents.Response> failed = registry.route("batched", 5000L).apply(new Object[] { "fail" }).toCompletableFuture();
+
+        // results of a batch are not held back by its slow member
+        for (int i = 0; i < 20; i++)
+            assertEquals("CALL" + i, futures.get(i).get(2, TimeUnit.SECONDS).getValue());
+        assertTrue(failed.handle((r, e) -> e != null).get());
+        assertEquals("SLOW", slow.get().getValue());
+        clusterNode.shutdown();
+    }
+
     @Test
     public void async() throws Exception {
         ClusterNode clusterNode = create(2552);
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.network.cluster;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.cluster.Valid$;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializerTest {
+    private static ActorSystem system;
+
+    public static class Payload {
+        String path;
+        List<String> values = new ArrayList<>();
+    }
+
+    @BeforeAll
+    public static void setup() {
+        system = ActorSystem.create("serializer", ConfigFactory.parseString(
+                "akka.actor.provider = local\n" +
+                "akka.actor.elements.serializer.compression = 1\n" +
+                "akka.loglevel = WARNING"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        system.terminate();
+    }
+
+    private static Payload payload(int size) {
+        Payload payload = new Payload();
+        payload.path = "default@net.e6tech.elements.network.cluster.SerializerTest::execute";
+        for (int i = 0; i < size; i++)
+            payload.values.add("value-" + i);
+        return payload;
+    }
+
+    private static void roundTrip(Serializer serializer, Payload payload, byte[] bytes) {
+        Payload copy = (Payload) serializer.fromBinary(bytes, serializer.manifest(payload));
+        assertEquals(payload.path, copy.path);
+        assertEquals(payload.values, copy.values);
+    }
+
+    @Test
+    public void threshold() {
+        Serializer serializer = new Serializer((ExtendedActorSystem) system);
+        serializer.codec = "deflate";
+        serializer.compressionThreshold = 1024;
+        Payload small = payload(2);
+        byte[] bytes = serializer.toBinary(small);
+        assertEquals(0, bytes[0]); // not compressed
+        roundTrip(serializer, small, bytes);
+
+        Payload large = payload(2000);
+        bytes = serializer.toBinary(large);
+        assertEquals(1, bytes[0]); // deflate
+        roundTrip(serializer, large, bytes);
+    }
+
+    @Test
+    public void gzip() {
+        // the defaults produce the gzip payloads older nodes expect, regardless of size
+        Serializer serializer = new Serializer((ExtendedActorSystem) system);
+        for (Payload payload : new Payload[] { payload(2), payload(2000) }) {
+            byte[] bytes = serializer.toBinary(payload);
+            assertEquals((byte) 0x1f, bytes[0]);
+            assertEquals((byte) 0x8b, bytes[1]);
+            roundTrip(new Serializer((ExtendedActorSystem) system), payload, bytes);
+        }
+    }
+
+    @Test
+    public void registration() {
+        String registration = "akka.actor.elements.serializer.registration {\n" +
+                "  \"net.e6tech.elements.network.cluster.SerializerTest$Payload\" = 100\n" +
+                "}\n";
+        Config config = ConfigFactory.parseString(registration +
+                "akka.actor.provider = local\n" +
+                "akka.actor.elements.serializer.compression = 1\n" +
+                "akka.loglevel = WARNING");
+        ActorSystem registered = ActorSystem.create("registered", config);
+        try {
+            Serializer serializer = new Serializer((ExtendedActorSystem) registered);
+            Payload payload = payload(2);
+            assertEquals("#100", serializer.manifest(payload));
+            roundTrip(serializer, payload, serializer.toBinary(payload));
+        } finally {
+            registered.terminate();
+        }
+
+        SerializerCompatChecker checker = new SerializerCompatChecker();
+        assertSame(Valid$.MODULE$, checker.check(config, config));
+        assertSame(Valid$.MODULE$, checker.check(ConfigFactory.empty(), ConfigFactory.empty()));
+        assertNotSame(Valid$.MODULE$, checker.check(ConfigFactory.empty(), config));
+        assertNotSame(Valid$.MODULE$, checker.check(ConfigFactory.parseString(registration.replace("100", "101")), config));
+        assertThrows(IllegalArgumentException.class, () -> Serializer.registrations(ConfigFactory.parseString(registration.replace("100", "3"))));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.network.cluster.invocation;
+
+import net.e6tech.elements.common.util.SystemException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvokerTest {
+
+    public interface Calculator {
+        int add(int a, int b);
+        String name();
+        void fail();
+    }
+
+    private Calculator calculator = new Calculator() {
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public String name() {
+            return "calculator";
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    };
+
+    @Test
+    public void compiled() throws Exception {
+        Invoker invoker = new Invoker();
+        for (Method method : Calculator.class.getMethods())
+            invoker.compile(method);
+
+        assertEquals(3, invoker.invoke(null, calculator, Calculator.class.getMethod("add", int.class, int.class), new Object[] {1, 2}));
+        assertEquals("calculator", invoker.invoke(null, calculator, Calculator.class.getMethod("name"), null));
+    }
+
+    @Test
+    public void sameExceptionAsReflection() throws Exception {
+        Method method = Calculator.class.getMethod("fail");
+        Invoker reflective = new Invoker();
+        Invoker compiled = new Invoker();
+        compiled.compile(method);
+
+        for (Invoker invoker : new Invoker[] {reflective, compiled}) {
+            SystemException ex = assertThrows(SystemException.class, () -> invoker.invoke(null, calculator, method, new Object[0]));
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -143,6 +143,16 @@ public class HibernateEntityManagerProvider extends EntityManagerProvider {
         }
     }
 
+    @Override
+    public void cancelQuery(EntityManager entityManager) {
+        super.cancelQuery(entityManager);
+        try {
+            entityManager.unwrap(SessionImpl.class).cancelQuery();
+        } catch (Exception ex) {
+            // don't care
+        }
+    }
+
     private SessionImpl getSessionImpl(Resources resources, String alias) {
         return resources.getMapVariable(SessionImpl.class).get(alias);
     }
@@ -17,30 +17,33 @@
 package net.e6tech.elements.persist;
 
 import net.e6tech.elements.common.logging.Logger;
-import net.e6tech.elements.common.resources.Resources;
 
 import javax.persistence.EntityManager;
 import java.util.concurrent.ExecutorService;
 
+/**
+ * Rolls back an EntityManager whose transaction has expired.  The rollback runs on the provider's thread pool
+ * while the request thread may still be inside the Resources, so the monitor works with the EntityManager and
+ * its proxy captured at open instead of reading them from the Resources.
+ */
 public class EntityManagerMonitor {
     private static final Logger logger = Logger.getLogger();
 
     private EntityManagerProvider provider;
-    private Resources resources;
     private EntityManager entityManager;
+    private EntityManager proxy;
     private long expiration;
     private Throwable throwable;
     private ExecutorService threadPool;
     private Thread originatingThread;
     private volatile boolean interrupted = false;
-    private String alias;
+    private boolean closed = false;
 
-    EntityManagerMonitor(String alias, ExecutorService threadPool, EntityManagerProvider provider, Resources resources,
-                         EntityManager entityManager, long expiration, Throwable throwable) {
-        this.alias = alias;
+    EntityManagerMonitor(ExecutorService threadPool, EntityManagerProvider provider,
+                         EntityManager entityManager, EntityManager proxy, long expiration, Throwable throwable) {
         this.provider = provider;
-        this.resources = resources;
         this.entityManager = entityManager;
+        this.proxy = proxy;
         this.expiration = expiration;
         this.throwable = throwable;
         this.threadPool = threadPool;
@@ -68,12 +71,15 @@ public class EntityManagerMonitor {
     @SuppressWarnings("squid:S1181")
     void rollback() {
         threadPool.execute(() -> {
+            // interrupt here in case there is a blocking call during the transaction
+            // however, this interrupt needs to be clear
+            if (!interrupt())
+                return;
+
             // cancel query
             try {
-                interrupt(); // interrupt here in case there is a blocking call during the transaction
-                             // however, this interrupt needs to be clear
                 if (entityManager.isOpen()) {
-                    provider.cancelQuery(resources, alias);
+                    provider.cancelQuery(entityManager);
                 }
             } catch (Throwable ex) {
                 logger.warn("Unexpected exception in EntityManagerMonitor cancel query", throwable);
@@ -83,7 +89,7 @@ public class EntityManagerMonitor {
             try {
                 synchronized (entityManager) {
                     if (entityManager.isOpen()) {
-                        provider.onAbort(resources, alias);
+                        provider.rollback(proxy);
                         logger.warn("EntityManagerProvider timeout", throwable);
                     }
                 }
@@ -93,17 +99,24 @@ public class EntityManagerMonitor {
         });
     }
 
-    private synchronized void interrupt() {
+    // returns false once the unit of work is over; its thread may already be running the next one,
+    // possibly with the same, recycled, Resources.
+    private synchronized boolean interrupt() {
+        if (closed || !entityManager.isOpen())
+            return false;
         if (!interrupted) {
             originatingThread.interrupt();
             interrupted = true;
         }
+        return true;
     }
 
-    // Called by EntityManagerProvider to clear interrupt
+    // Called by EntityManagerProvider to clear interrupt.  Afterward, a pending rollback does nothing.
     synchronized void close() {
         if (interrupted) {
             Thread.interrupted(); // clear current interrupt so that it won't propagate further.
+            interrupted = false;
         }
+        closed = true;
     }
 }
@@ -329,15 +329,6 @@ public abstract class EntityManagerProvider implements ResourceProvider, Initial
         EntityManager em = resources.getInstance(EntityManagerBuilder.class, () -> (r, a, f) -> f.createEntityManager())
                 .build(resources, alias, emf);
 
-        if (config.monitor()) {
-            EntityManagerMonitor entityManagerMonitor = new EntityManagerMonitor(alias, threadPool, this,
-                    resources,
-                    em, System.currentTimeMillis() + config.timeout(), new Throwable());
-            monitor(entityManagerMonitor);
-            resources.getMapVariable(EntityManagerMonitor.class)
-                    .put(alias, entityManagerMonitor);
-        }
-
         EntityManagerInvocationHandler emHandler = new EntityManagerInvocationHandler(resources,
                 em, alias, this, config,
                 getEntityManagerListener(), getQueryListener());
@@ -347,6 +338,14 @@ public abstract class EntityManagerProvider implements ResourceProvider, Initial
         EntityManager proxy = (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
                 new Class[]{EntityManager.class, EntityManagerExtension.class}, emHandler);
 
+        if (config.monitor()) {
+            EntityManagerMonitor entityManagerMonitor = new EntityManagerMonitor(threadPool, this,
+                    em, proxy, System.currentTimeMillis() + config.timeout(), new Throwable());
+            monitor(entityManagerMonitor);
+            resources.getMapVariable(EntityManagerMonitor.class)
+                    .put(alias, entityManagerMonitor);
+        }
+
         // first come first win unless it is the DEFAULT
         if (!resources.hasInstance(EntityManager.class)) {
             resources.bind(EntityManager.class, proxy);
@@ -500,27 +499,7 @@ public abstract class EntityManagerProvider implements ResourceProvider, Initial
 
     protected void onAbort(Resources resources, String alias) {
         try {
-            EntityManager em = resources.getMapVariable(EntityManager.class).get(alias);
-            EntityManagerInvocationHandler h = (EntityManagerInvocationHandler) Proxy.getInvocationHandler(em);
-            synchronized (h.getTarget()) {
-                if (em.getTransaction().isActive()) {
-                    try {
-                        h.onAbort();
-                    } catch (Exception ex) {
-                        logger.error("Unexpected exception in EntityManagerInvocationHandler.onAbort during abort.", ex);
-                    }
-                    em.getTransaction().rollback();
-                    try {
-                        h.onClose();
-                    } catch (Exception ex) {
-                        logger.error("Unexpected exception in EntityManagerInvocationHandler.onClose during abort.", ex);
-                    }
-                    em.clear();
-                }
-
-                if (em.isOpen())
-                    em.close();
-            }
+            rollback(resources.getMapVariable(EntityManager.class).get(alias));
         } catch (Exception th) {
             Logger.suppress(th);
         }  finally {
@@ -528,6 +507,30 @@ public abstract class EntityManagerProvider implements ResourceProvider, Initial
         }
     }
 
+    // em is the proxy created by onOpen.  Also called by EntityManagerMonitor from the thread pool.
+    protected void rollback(EntityManager em) {
+        EntityManagerInvocationHandler h = (EntityManagerInvocationHandler) Proxy.getInvocationHandler(em);
+        synchronized (h.getTarget()) {
+            if (em.getTransaction().isActive()) {
+                try {
+                    h.onAbort();
+                } catch (Exception ex) {
+                    logger.error("Unexpected exception in EntityManagerInvocationHandler.onAbort during abort.", ex);
+                }
+                em.getTransaction().rollback();
+                try {
+                    h.onClose();
+                } catch (Exception ex) {
+                    logger.error("Unexpected exception in EntityManagerInvocationHandler.onClose during abort.", ex);
+                }
+                em.clear();
+            }
+
+            if (em.isOpen())
+                em.close();
+        }
+    }
+
     protected void cleanup(Resources resources, String alias) {
     }
 
@@ -566,6 +569,10 @@ public abstract class EntityManagerProvider implements ResourceProvider, Initial
     public void cancelQuery(Resources resources, String alias) {
     }
 
+    // entityManager is the one created by EntityManagerBuilder, not the proxy.  Called by EntityManagerMonitor.
+    public void cancelQuery(EntityManager entityManager) {
+    }
+
     @Override
     public final String getDescription() {
         return getDescription(getProviderName());
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.persist;
+
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityManagerMonitorTest {
+
+    private ExecutorService threadPool = Executors.newSingleThreadExecutor();
+    private AtomicBoolean open = new AtomicBoolean(true);
+    private List<EntityManager> cancelled = new ArrayList<>();
+    private List<EntityManager> rolledBack = new ArrayList<>();
+
+    private EntityManagerProvider provider = new EntityManagerProvider() {
+        @Override
+        public void cancelQuery(EntityManager entityManager) {
+            cancelled.add(entityManager);
+        }
+
+        @Override
+        protected void rollback(EntityManager em) {
+            rolledBack.add(em);
+            open.set(false);
+        }
+    };
+
+    private EntityManager entityManager() {
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { EntityManager.class },
+                (proxy, method, args) -> "isOpen".equals(method.getName()) ? open.get() : null);
+    }
+
+    // yields rather than blocks since the monitor interrupts the calling thread
+    private void expire(EntityManagerMonitor monitor) {
+        monitor.rollback();
+        threadPool.shutdown();
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!threadPool.isTerminated() && System.currentTimeMillis() < deadline)
+            Thread.yield();
+        assertTrue(threadPool.isTerminated());
+    }
+
+    @Test
+    void expired() throws Exception {
+        EntityManager em = entityManager();
+        EntityManager proxy = entityManager();
+        EntityManagerMonitor monitor = new EntityManagerMonitor(threadPool, provider, em, proxy, 0, new Throwable());
+
+        expire(monitor);
+        assertSame(em, cancelled.get(0));
+        assertSame(proxy, rolledBack.get(0));
+        assertTrue(Thread.currentThread().isInterrupted());
+
+        monitor.close();  // the interrupt does not outlive the unit of work
+        assertFalse(Thread.interrupted());
+    }
+
+    @Test
+    void closedBeforeRollback() throws Exception {
+        EntityManagerMonitor monitor = new EntityManagerMonitor(threadPool, provider, entityManager(), entityManager(), 0, new Throwable());
+
+        // the unit of work ended and its Resources may have been recycled for the next one
+        monitor.close();
+        expire(monitor);
+        assertTrue(cancelled.isEmpty());
+        assertTrue(rolledBack.isEmpty());
+        assertFalse(Thread.interrupted());
+    }
+}
@@ -27,22 +27,17 @@ import net.e6tech.elements.common.util.ExceptionMapper;
 import net.e6tech.elements.common.util.SystemException;
 import net.e6tech.elements.common.util.datastructure.Pair;
 import net.e6tech.elements.jmx.JMXService;
-import net.e6tech.elements.jmx.stat.Measurement;
+import net.e6tech.elements.jmx.stat.HistogramMeasurement;
 import net.e6tech.elements.security.JavaKeyStore;
 import net.e6tech.elements.security.SelfSignedCert;
 import net.e6tech.elements.web.JaxExceptionHandler;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.transport.http.AbstractHTTPDestination;
 
-import javax.annotation.Nonnull;
 import javax.management.JMException;
-import javax.management.ObjectInstance;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.ws.rs.PathParam;
-import javax.ws.rs.QueryParam;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.KeyStore;
@@ -50,6 +45,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -57,8 +53,8 @@ import java.util.function.Supplier;
  */
 @SuppressWarnings("squid:S134")
 public class CXFServer implements Initializable, Startable {
-    private static final String CANNOT_BE_NULL = " cannot be null. \n";
     private static final Logger logger = Logger.getLogger();
+    private static final Map<String, HistogramMeasurement> registeredMeasurements = new ConcurrentHashMap<>();
     private Provision provision;
     private Interceptor interceptor;
     private List<URL> urls = new LinkedList<>();
@@ -81,6 +77,7 @@ public class CXFServer implements Initializable, Startable {
     private Class<? extends ServerEngine> serverEngineClass;
     private Object serverEngineData;
     private List<ServerController> controllers = new LinkedList<>();
+    private Map<Method, MethodMetadata> methodMetadata = new ConcurrentHashMap<>();
 
     public void setAddresses(List<String> addresses) throws MalformedURLException {
         for (String address : addresses) {
@@ -339,77 +336,68 @@ public class CXFServer implements Initializable, Startable {
         }
     }
 
-    void computePerformance(Method method, Map<Method,String> methods, long duration) {
-        ObjectInstance instance = null;
-        try {
-            instance = getMeasurement(method, methods);
-            logger.trace("{} call took {}ms",  instance.getObjectName().getCanonicalName(), duration);
-            JMXService.invoke(instance.getObjectName(), "add", duration);
-        } catch (Exception e) {
-            logger.debug("Unable to record measurement for " + method, e);
-        }
+    /**
+     * @param method resource method
+     * @param startNanos System.nanoTime() taken when the call started
+     */
+    void computePerformance(Method method, long startNanos) {
+        computePerformance(getMetadata(method), startNanos);
     }
 
-    void recordFailure(Method method, Map<Method,String> methods) {
-        try {
-            ObjectInstance instance = getMeasurement(method, methods);
-            JMXService.invoke(instance.getObjectName(), "fail");
-        } catch (Exception e) {
-            logger.debug("Unable to record fail measurement for " + method, e);
-        }
+    void computePerformance(MethodMetadata metadata, long startNanos) {
+        double duration = (System.nanoTime() - startNanos) / 1_000_000.0;
+        HistogramMeasurement m = metadata.getMeasurement();
+        m.add(duration);
+        if (logger.isTraceEnabled())
+            logger.trace("{} call took {}ms", m.getName(), duration);
+    }
+
+    void recordFailure(Method method) {
+        getMetadata(method).getMeasurement().fail();
     }
 
-    private ObjectInstance getMeasurement(Method method, Map<Method, String> methods) throws JMException {
-        String methodName = methods.computeIfAbsent(method, m -> {
-            StringBuilder builder = new StringBuilder();
-            builder.append(m.getDeclaringClass().getTypeName());
-            builder.append(".");
-            builder.append(m.getName());
-            Class[] types = m.getParameterTypes();
-            for (int i = 0; i < types.length; i++) {
-                builder.append("|"); // separating parameters using underscores instead commas because of JMX
-                // ObjectName constraint
-                builder.append(types[i].getSimpleName());
+    /*
+     * Metadata, including the measurement, is resolved once per method; requests update the measurement
+     * directly while JMX only sees the read only HistogramMeasurementMXBean view.  The name keyed map
+     * is static because MBean names are global, i.e. servers exposing the same method share a measurement.
+     * An MBean already registered under the name, e.g. by another class loader, is replaced so that JMX
+     * reports the measurement requests actually update.
+     */
+    MethodMetadata getMetadata(Method method) {
+        MethodMetadata metadata = methodMetadata.get(method);
+        if (metadata != null)
+            return metadata;
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(method.getDeclaringClass().getTypeName());
+        builder.append(".");
+        builder.append(method.getName());
+        Class[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            builder.append("|"); // separating parameters using underscores instead commas because of JMX
+            // ObjectName constraint
+            builder.append(types[i].getSimpleName());
+        }
+
+        HistogramMeasurement m = registeredMeasurements.computeIfAbsent(builder.toString(), methodName -> {
+            HistogramMeasurement measurement = new HistogramMeasurement(methodName, "ms", isMeasurement());
+            String objectName = "net.e6tech:type=Restful,name=" + methodName;
+            try {
+                if (JMXService.find(objectName).isPresent())
+                    JMXService.unregisterMBean(objectName);
+                JMXService.registerIfAbsent(objectName, () -> measurement);
+            } catch (JMException e) {
+                logger.debug("Unable to register measurement for " + method, e);
             }
-            return builder.toString();
+            return measurement;
         });
-
-        String objectName = "net.e6tech:type=Restful,name=" + methodName;
-        return JMXService.registerIfAbsent(objectName, () -> new Measurement(methodName, "ms", isMeasurement()));
+        metadata = new MethodMetadata(method, m);
+        MethodMetadata existing = methodMetadata.putIfAbsent(method, metadata);
+        return existing != null ? existing : metadata;
     }
 
-    @SuppressWarnings("squid:S3776")
     void checkInvocation(Method method, Object[] args) {
-        Parameter[] params = method.getParameters();
-        int idx = 0;
-        StringBuilder builder = null;
-        for (Parameter param : params) {
-            QueryParam queryParam =  param.getAnnotation(QueryParam.class);
-            PathParam pathParam =  param.getAnnotation(PathParam.class);
-            if (args[idx] == null || (args[idx] instanceof String && ((String) args[idx]).trim().isEmpty())) {
-                if (pathParam != null) {
-                    if (builder == null)
-                        builder = new StringBuilder();
-                    builder.append("path parameter ").append(pathParam.value()).append(CANNOT_BE_NULL);
-                }
-
-                if (param.getAnnotation(Nonnull.class) != null) {
-                    if (queryParam != null) {
-                        if (builder == null)
-                            builder = new StringBuilder();
-                        builder.append("query parameter ").append(queryParam.value()).append(CANNOT_BE_NULL);
-                    } else if (pathParam == null) {
-                        if (builder == null)
-                            builder = new StringBuilder();
-                        builder.append("post parameter ").append("arg").append(idx).append(CANNOT_BE_NULL);
-                    }
-                }
-            }
-            idx++;
-        }
-        if (builder != null) {
-            throw new IllegalArgumentException(builder.toString());
-        }
+        getMetadata(method).checkArguments(args);
     }
 }
 
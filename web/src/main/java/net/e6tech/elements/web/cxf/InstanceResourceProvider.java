@@ -16,8 +16,10 @@
 
 package net.e6tech.elements.web.cxf;
 
+import net.e6tech.elements.common.inject.Inject;
 import net.e6tech.elements.common.inject.Module;
 import net.e6tech.elements.common.interceptor.CallFrame;
+import net.e6tech.elements.common.interceptor.Interceptor;
 import net.e6tech.elements.common.interceptor.InterceptorHandler;
 import net.e6tech.elements.common.logging.LogLevel;
 import net.e6tech.elements.common.logging.Logger;
@@ -33,22 +35,35 @@ import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.jaxrs.lifecycle.PerRequestResourceProvider;
 import org.apache.cxf.message.Message;
 
-import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class InstanceResourceProvider extends PerRequestResourceProvider {
+    static final int DEFAULT_POOL_SIZE = 64;
+
     private ResourcesFactory factory;
     private Observer observer;
-    private Map<Method, String> methods = new ConcurrentHashMap<>();
     private Object prototype;
     private CXFServer server;
     private Map<Signature, Map<Class<? extends Annotation>, Annotation>> annotations;
+    private Map<Method, Annotation[]> methodAnnotations = new ConcurrentHashMap<>();
+    private int poolSize = 0;  // idle proxies kept for Stateless resources, 0 means no pooling.
+    private Queue<Object> pool = new ConcurrentLinkedQueue<>();
+    private AtomicInteger idle = new AtomicInteger();
+    private volatile Field[] injectedFields;  // reset before a target goes back to the pool
 
     @SuppressWarnings("unchecked")
     InstanceResourceProvider(JaxRSServer server, Class resourceClass, Object prototype, Module module, ResourcesFactory factory, Observer observer) {
@@ -68,44 +83,117 @@ class InstanceResourceProvider extends PerRequestResourceProvider {
         annotations = Reflection.getAnnotations(resourceClass);
     }
 
+    // class annotations followed by method annotations so that the latter take precedence when opening the UnitOfWork.
+    private Annotation[] resolveAnnotations(Class cls, Method method) {
+        Map<Class<? extends Annotation>, Annotation> map = new LinkedHashMap<>();
+        map.putAll(annotations.getOrDefault(new ClassSignature(cls), Collections.emptyMap()));
+        map.putAll(annotations.getOrDefault(new MethodSignature(method), Collections.emptyMap()));
+        return map.values().toArray(new Annotation[0]);
+    }
+
+    int getPoolSize() {
+        return poolSize;
+    }
+
+    void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected Object createInstance(Message message) {
-        Object instance = super.createInstance(message);
-        if (prototype != null)
-            Reflection.copyInstance(instance, prototype);
+        // a pooled proxy already went through construction, PostConstruct and prototype copying;
+        // only the per request state held by its handler is replaced.
+        Object proxy = (poolSize > 0) ? pool.poll() : null;
+        Object instance = null;
+        if (proxy != null) {
+            idle.decrementAndGet();
+        } else {
+            instance = super.createInstance(message);
+            if (prototype != null)
+                Reflection.copyInstance(instance, prototype);
+        }
+
         Observer cloneObserver = (observer == null) ? null : observer.clone();
         UnitOfWork uow = (cloneObserver != null) ? cloneObserver.open(factory) : factory.open();
-        return server.getInterceptor().newInterceptor(instance, new Handler(uow, methods, cloneObserver, message));
+        if (proxy != null) {
+            Handler handler = Interceptor.getInterceptorHandler(proxy);
+            handler.reset(uow, cloneObserver, message);
+            return proxy;
+        }
+        return server.getInterceptor().newInterceptor(instance, new Handler(uow, cloneObserver, message));
     }
 
-    private class Handler implements InterceptorHandler {
+    @Override
+    public void releaseInstance(Message m, Object o) {
+        if (poolSize > 0) {
+            if (idle.incrementAndGet() <= poolSize) {
+                Handler handler = Interceptor.getInterceptorHandler(o);
+                handler.reset(null, null, null);
+                resetInjected(Interceptor.getTarget(o));
+                pool.offer(o);
+                return;
+            }
+            idle.decrementAndGet();
+        }
+        super.releaseInstance(m, o);
+    }
+
+    /*
+     * Fields injected from the previous request's Resources are set back to the prototype's values, or null,
+     * so that a pooled target does not hold on to them.  Values injected through setters are not reset; they
+     * are replaced when the next request injects the target.
+     */
+    private void resetInjected(Object target) {
+        Field[] fields = injectedFields;
+        if (fields == null) {
+            List<Field> list = new ArrayList<>();
+            for (Class cls = target.getClass(); cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (!field.getType().isPrimitive() && !Modifier.isStatic(field.getModifiers())
+                            && (field.getAnnotation(Inject.class) != null || field.getAnnotation(javax.inject.Inject.class) != null)) {
+                        field.setAccessible(true);
+                        list.add(field);
+                    }
+                }
+            }
+            fields = list.toArray(new Field[0]);
+            injectedFields = fields;
+        }
+
+        for (Field field : fields) {
+            try {
+                Object value = (prototype != null && field.getDeclaringClass().isInstance(prototype)) ? field.get(prototype) : null;
+                field.set(target, value);
+            } catch (IllegalAccessException e) {
+                Logger.suppress(e);
+            }
+        }
+    }
+
+    class Handler implements InterceptorHandler {
         UnitOfWork uow;
         Message message;
         Observer observer;
-        Map<Method, String> methods;
 
-        Handler(UnitOfWork uow, Map<Method, String> methods, Observer observer, Message message) {
+        Handler(UnitOfWork uow, Observer observer, Message message) {
+            reset(uow, observer, message);
+        }
+
+        void reset(UnitOfWork uow, Observer observer, Message message) {
             this.uow = uow;
             this.message = message;
             this.observer = observer;
-            this.methods = methods;
         }
 
         @SuppressWarnings("unchecked")
         private void open(Object target, Method method) {
-            Class cls = target.getClass();
-            ClassSignature classSignature = new ClassSignature(cls);
-            Map<Class<? extends Annotation>, Annotation> map = annotations.getOrDefault(classSignature, new HashMap<>());
-            MethodSignature methodSignature = new MethodSignature(method);
-            Map<Class<? extends Annotation>, Annotation> map2 = annotations.getOrDefault(methodSignature, new HashMap<>());
-
-            for (Map.Entry<Class<? extends Annotation>, Annotation> entry : map.entrySet()) {
-                uow.put((Class) entry.getKey(), entry.getValue());
-            }
+            Annotation[] list = methodAnnotations.get(method);
+            if (list == null)
+                list = methodAnnotations.computeIfAbsent(method, m -> resolveAnnotations(target.getClass(), m));
 
-            for (Map.Entry<Class<? extends Annotation>, Annotation> entry : map2.entrySet()) {
-                uow.put((Class) entry.getKey(), entry.getValue());
+            for (Annotation annotation : list) {
+                uow.put((Class) annotation.annotationType(), annotation);
             }
 
             uow.open();
@@ -120,7 +208,8 @@ class InstanceResourceProvider extends PerRequestResourceProvider {
 
             // Note PostConstruct is handled by CXF during createInstance
             boolean uowOpen = false;
-            if (frame.getAnnotation(PreDestroy.class) != null) {
+            MethodMetadata metadata = server.getMetadata(frame.getMethod());
+            if (metadata.isPreDestroy()) {
                 ignored = true;
             } else {
                 try {
@@ -133,10 +222,10 @@ class InstanceResourceProvider extends PerRequestResourceProvider {
             }
 
             try {
-                server.checkInvocation(frame.getMethod(), frame.getArguments());
+                metadata.checkArguments(frame.getArguments());
                 Pair<HttpServletRequest, HttpServletResponse> pair = server.getServletRequestResponse(message);
                 if (!ignored) {
-                    long start = System.currentTimeMillis();
+                    long start = System.nanoTime();
                     result = uow.submit(() -> {
                         try {
                             if (observer != null) {
@@ -165,14 +254,13 @@ class InstanceResourceProvider extends PerRequestResourceProvider {
                             throw th;
                         }
                     });
-                    long duration = System.currentTimeMillis() - start;
-                    server.computePerformance(frame.getMethod(), methods, duration);
+                    server.computePerformance(metadata, start);
                 } else {
                     // PreDestroy is called
                     result = frame.invoke();
                 }
             } catch (Exception th) {
-                server.recordFailure(frame.getMethod(), methods);
+                metadata.getMeasurement().fail();
                 exception = true;
                 server.getProvision().log(JaxRSServer.getLogger(), LogLevel.DEBUG, th.getMessage(), th);
                 server.handleException(message, frame, th);
@@ -214,7 +214,10 @@ public class JaxRSServer extends CXFServer {
         } else {
             Module module = (res == null) ? null : res.getModule();
             ResourcesFactory factory = (resourcesFactory != null) ? resourcesFactory : getProvision().resourcesFactory();
-            resourceProvider = new InstanceResourceProvider(this, jaxResource.getResourceClass(), prototype, module, factory, hObserver);
+            InstanceResourceProvider provider = new InstanceResourceProvider(this, jaxResource.getResourceClass(), prototype, module, factory, hObserver);
+            if (jaxResource.isStateless())
+                provider.setPoolSize(jaxResource.getPoolSize() > 0 ? jaxResource.getPoolSize() : InstanceResourceProvider.DEFAULT_POOL_SIZE);
+            resourceProvider = provider;
         }
 
         String resourceName = jaxResource.getName();
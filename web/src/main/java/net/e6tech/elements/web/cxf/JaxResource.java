@@ -38,6 +38,8 @@ public class JaxResource {
     private String classLoaderResolver;
     private ClassLoader classLoaderDelegate;
     private boolean singleton;
+    private Boolean stateless;  // null means the @Stateless annotation decides
+    private int poolSize;
     private String registerBean;
     private String name;
     private String prototypeResolver;
@@ -90,6 +92,21 @@ public class JaxResource {
         return this;
     }
 
+    public JaxResource stateless() {
+        setStateless(true);
+        return this;
+    }
+
+    public JaxResource stateless(boolean stateless) {
+        setStateless(stateless);
+        return this;
+    }
+
+    public JaxResource poolSize(int poolSize) {
+        setPoolSize(poolSize);
+        return this;
+    }
+
     public JaxResource prototype(String prototype) {
         setPrototypeResolver(prototype);
         return this;
@@ -159,6 +176,22 @@ public class JaxResource {
         this.singleton = singleton;
     }
 
+    public boolean isStateless() {
+        return Boolean.TRUE.equals(stateless);
+    }
+
+    public void setStateless(boolean stateless) {
+        this.stateless = stateless;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
     public String getRegisterBean() {
         return registerBean;
     }
@@ -246,11 +279,18 @@ public class JaxResource {
     }
 
     private void resolveSingleton() {
-        if (!singleton) {
-            Map<Signature, Map<Class<? extends Annotation>, Annotation>> annotations = Reflection.getAnnotations(resourceClass);
-            if (annotations.getOrDefault(new ClassSignature(resourceClass), new HashMap<>()).get(Singleton.class) != null) {
-                singleton = true;
-            }
+        Map<Signature, Map<Class<? extends Annotation>, Annotation>> annotations = Reflection.getAnnotations(resourceClass);
+        Map<Class<? extends Annotation>, Annotation> classAnnotations = annotations.getOrDefault(new ClassSignature(resourceClass), new HashMap<>());
+        if (!singleton && classAnnotations.get(Singleton.class) != null) {
+            singleton = true;
+        }
+        // an explicit stateless(false) overrides the annotation
+        Stateless s = (Stateless) classAnnotations.get(Stateless.class);
+        if (s != null) {
+            if (stateless == null)
+                stateless = true;
+            if (poolSize <= 0)
+                poolSize = s.poolSize();
         }
     }
 
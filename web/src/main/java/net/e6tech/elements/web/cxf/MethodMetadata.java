@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.web.cxf;
+
+import net.e6tech.elements.jmx.stat.HistogramMeasurement;
+
+import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+/**
+ * Everything the request path needs to know about a resource method, resolved once by
+ * CXFServer.getMetadata so that an invocation only reads pre-built fields.
+ */
+class MethodMetadata {
+    private static final String CANNOT_BE_NULL = " cannot be null. \n";
+
+    private final Method method;
+    private final boolean preDestroy;
+    private final String[] nullMessages;  // per parameter message when the argument is missing, null if not checked
+    private final boolean checked;
+    private final HistogramMeasurement measurement;
+
+    MethodMetadata(Method method, HistogramMeasurement measurement) {
+        this.method = method;
+        this.measurement = measurement;
+        this.preDestroy = method.getAnnotation(PreDestroy.class) != null;
+
+        Parameter[] params = method.getParameters();
+        nullMessages = new String[params.length];
+        boolean hasCheck = false;
+        for (int idx = 0; idx < params.length; idx++) {
+            Parameter param = params[idx];
+            QueryParam queryParam =  param.getAnnotation(QueryParam.class);
+            PathParam pathParam =  param.getAnnotation(PathParam.class);
+            StringBuilder builder = new StringBuilder();
+            if (pathParam != null)
+                builder.append("path parameter ").append(pathParam.value()).append(CANNOT_BE_NULL);
+
+            if (param.getAnnotation(Nonnull.class) != null) {
+                if (queryParam != null) {
+                    builder.append("query parameter ").append(queryParam.value()).append(CANNOT_BE_NULL);
+                } else if (pathParam == null) {
+                    builder.append("post parameter ").append("arg").append(idx).append(CANNOT_BE_NULL);
+                }
+            }
+
+            if (builder.length() > 0) {
+                nullMessages[idx] = builder.toString();
+                hasCheck = true;
+            }
+        }
+        checked = hasCheck;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    boolean isPreDestroy() {
+        return preDestroy;
+    }
+
+    HistogramMeasurement getMeasurement() {
+        return measurement;
+    }
+
+    void checkArguments(Object[] args) {
+        if (!checked)
+            return;
+
+        StringBuilder builder = null;
+        for (int idx = 0; idx < nullMessages.length; idx++) {
+            if (nullMessages[idx] != null
+                    && (args[idx] == null || (args[idx] instanceof String && ((String) args[idx]).trim().isEmpty()))) {
+                if (builder == null)
+                    builder = new StringBuilder();
+                builder.append(nullMessages[idx]);
+            }
+        }
+        if (builder != null) {
+            throw new IllegalArgumentException(builder.toString());
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by barry.
@@ -46,6 +47,7 @@ public class SecurityAnnotationEngine {
 
     private Map<Object, Class> securityProviders = new HashMap<>();
     private Map<String, Map<MethodSignature, Set<String>>> scannedClassMap = new HashMap<>();
+    private Map<Class, Map<Method, Set<String>>> resolvedRoles = new ConcurrentHashMap<>();  // lookupRoles results, cleared by register
 
     public Map<Object, Class> getSecurityProviders() {
         return securityProviders;
@@ -86,6 +88,7 @@ public class SecurityAnnotationEngine {
         }
 
         scannedClassMap.put(cls.getName(), methodMap);
+        resolvedRoles.clear();
         return this;
     }
 
@@ -94,9 +97,7 @@ public class SecurityAnnotationEngine {
         if (userRole == null) {
             return hasAccess(instance, method, args, Collections.emptySet());
         }
-        Set<String> roles = new HashSet<>();
-        roles.add(userRole);
-        return hasAccess(instance, method, args, roles);
+        return hasAccess(instance, method, args, Collections.singleton(userRole));
     }
 
     public boolean hasAccess(Object instance, Method method, Object[] args, Set<String> userRoles) {
@@ -134,6 +135,16 @@ public class SecurityAnnotationEngine {
     }
 
     public Set<String> lookupRoles(Class cls, Method method) {
+        Map<Method, Set<String>> methods = resolvedRoles.computeIfAbsent(cls, c -> new ConcurrentHashMap<>());
+        Set<String> roles = methods.get(method);
+        if (roles == null) {
+            roles = scanLookup(cls, method);
+            methods.put(method, roles);
+        }
+        return roles;
+    }
+
+    private Set<String> scanLookup(Class cls, Method method) {
         MethodSignature methodSig = createMethodSig(method);
         logger.trace("lookupRole: class: {} method:{}", cls.getName(), methodSig);
 
@@ -24,9 +24,6 @@ import org.apache.cxf.message.Message;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 class SharedResourceProvider extends SingletonResourceProvider {
 
@@ -34,7 +31,6 @@ class SharedResourceProvider extends SingletonResourceProvider {
 
     private Observer observer;
     private Object proxy = null;
-    private Map<Method, String> methods = new ConcurrentHashMap<>();
     private CXFServer server;
 
     SharedResourceProvider(JaxRSServer server, Object instance, Observer observer) {
@@ -51,8 +47,9 @@ class SharedResourceProvider extends SingletonResourceProvider {
             Observer cloneObserver = (observer !=  null) ? observer.clone(): null;
             proxy = server.getInterceptor().newInterceptor(super.getInstance(null), frame -> {
                 Message message = messageThreadLocal.get();
+                MethodMetadata metadata = server.getMetadata(frame.getMethod());
                 try {
-                    server.checkInvocation(frame.getMethod(), frame.getArguments());
+                    metadata.checkArguments(frame.getArguments());
                     if (cloneObserver != null && message != null) {
                         Pair<HttpServletRequest, HttpServletResponse> pair = server.getServletRequestResponse(message);
                         server.getProvision().inject(cloneObserver);
@@ -62,12 +59,11 @@ class SharedResourceProvider extends SingletonResourceProvider {
                         }
                         cloneObserver.beforeInvocation(pair.key(), pair.value(), frame.getTarget(), frame.getMethod(), frame.getArguments());
                     }
-                    long start = System.currentTimeMillis();
+                    long start = System.nanoTime();
 
                     Object result = frame.invoke();
 
-                    long duration = System.currentTimeMillis() - start;
-                    server.computePerformance(frame.getMethod(), methods, duration);
+                    server.computePerformance(metadata, start);
                     if (cloneObserver != null)
                         cloneObserver.afterInvocation(result);
 
@@ -75,7 +71,7 @@ class SharedResourceProvider extends SingletonResourceProvider {
                 } catch (Exception th) {
                     if (cloneObserver != null)
                         cloneObserver.onException(th);
-                    server.recordFailure(frame.getMethod(), methods);
+                    metadata.getMeasurement().fail();
                     server.getProvision().log(JaxRSServer.getLogger(), LogLevel.DEBUG, th.getMessage(), th);
                     server.handleException(message, frame, th);
                 } finally {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.web.cxf;
+
+import net.e6tech.elements.common.inject.Inject;
+import net.e6tech.elements.common.interceptor.Interceptor;
+import net.e6tech.elements.common.resources.Provision;
+import net.e6tech.elements.common.resources.ResourceManager;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstanceResourceProviderTest {
+
+    public static class PooledRS {
+        static final AtomicInteger destroyed = new AtomicInteger();
+
+        @Inject(optional = true)
+        Object injected;
+
+        public String hello() {
+            return "hello";
+        }
+
+        @PreDestroy
+        public void destroy() {
+            destroyed.incrementAndGet();
+        }
+    }
+
+    private InstanceResourceProvider provider(int poolSize) {
+        ResourceManager resourceManager = new ResourceManager();
+        JaxRSServer server = new JaxRSServer();
+        server.setInterceptor(Interceptor.getInstance());
+        InstanceResourceProvider provider = new InstanceResourceProvider(server, PooledRS.class, null, null,
+                resourceManager.getInstance(Provision.class).resourcesFactory(), null);
+        provider.setPoolSize(poolSize);
+        return provider;
+    }
+
+    // CXF only looks up the Application on the endpoint while creating a per-request instance
+    private Message message() {
+        Endpoint endpoint = (Endpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { Endpoint.class }, (proxy, method, args) -> null);
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Endpoint.class, endpoint);
+        Message message = new MessageImpl();
+        message.setExchange(exchange);
+        exchange.setInMessage(message);
+        return message;
+    }
+
+    @Test
+    public void pooled() {
+        InstanceResourceProvider provider = provider(1);
+        PooledRS.destroyed.set(0);
+
+        Message first = message();
+        Object proxy = provider.createInstance(first);
+        Interceptor.<PooledRS>getTarget((PooledRS) proxy).injected = "request 1";
+        Object other = provider.createInstance(message());
+        assertNotSame(proxy, other);
+
+        provider.releaseInstance(first, proxy);   // kept in the pool, PreDestroy is skipped
+        assertEquals(0, PooledRS.destroyed.get());
+        assertNull(Interceptor.<PooledRS>getTarget((PooledRS) proxy).injected);
+        provider.releaseInstance(null, other);   // beyond the pool size, released normally
+        assertEquals(1, PooledRS.destroyed.get());
+
+        Message second = message();
+        assertSame(proxy, provider.createInstance(second));
+        InstanceResourceProvider.Handler handler = Interceptor.getInterceptorHandler(proxy);
+        assertSame(second, handler.message);
+        assertNotNull(handler.uow);
+    }
+
+    @Test
+    public void notPooled() {
+        InstanceResourceProvider provider = provider(0);
+        PooledRS.destroyed.set(0);
+        Object proxy = provider.createInstance(message());
+        provider.releaseInstance(null, proxy);
+        assertEquals(1, PooledRS.destroyed.get());
+        assertNotSame(proxy, provider.createInstance(message()));
+    }
+}
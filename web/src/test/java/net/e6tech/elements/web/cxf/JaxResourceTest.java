@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.web.cxf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JaxResourceTest {
+
+    @Stateless(poolSize = 8)
+    public static class StatelessRS {
+    }
+
+    @Test
+    public void stateless() {
+        JaxResource resource = new JaxResource(StatelessRS.class);
+        resource.resolveResourceClass(null, null);
+        assertTrue(resource.isStateless());
+        assertFalse(resource.isSingleton());
+        assertEquals(8, resource.getPoolSize());
+
+        resource = new JaxResource(StatelessRS.class).poolSize(2);
+        resource.resolveResourceClass(null, null);
+        assertEquals(2, resource.getPoolSize());
+
+        resource = new JaxResource(HelloWorldRS.class);
+        resource.resolveResourceClass(null, null);
+        assertFalse(resource.isStateless());
+
+        resource = new JaxResource(StatelessRS.class).stateless(false);  // overrides the annotation
+        resource.resolveResourceClass(null, null);
+        assertFalse(resource.isStateless());
+    }
+}
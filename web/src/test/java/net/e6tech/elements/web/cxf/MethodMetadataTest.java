@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-2021 Futeh Kao
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.e6tech.elements.web.cxf;
+
+import net.e6tech.elements.jmx.JMXService;
+import net.e6tech.elements.jmx.stat.HistogramMeasurement;
+import net.e6tech.elements.jmx.stat.Measurement;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
+import javax.management.ObjectName;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MethodMetadataTest {
+
+    @SuppressWarnings("squid:S1186")
+    public static class Resource {
+        public void get(@PathParam("id") String id, @Nonnull @QueryParam("q") String q, @Nonnull String body, String optional) {
+        }
+
+        @PreDestroy
+        public void destroy() {
+        }
+
+        public void put(String body) {
+        }
+    }
+
+    @Test
+    public void checkArguments() throws Exception {
+        Method method = Resource.class.getMethod("get", String.class, String.class, String.class, String.class);
+        MethodMetadata metadata = new CXFServer().getMetadata(method);
+        assertFalse(metadata.isPreDestroy());
+
+        metadata.checkArguments(new Object[] {"1", "q", "body", null});
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> metadata.checkArguments(new Object[] {" ", null, null, null}));
+        assertEquals("path parameter id cannot be null. \n"
+                + "query parameter q cannot be null. \n"
+                + "post parameter arg2 cannot be null. \n", ex.getMessage());
+    }
+
+    @Test
+    public void resolvedOnce() throws Exception {
+        CXFServer server = new CXFServer();
+        Method method = Resource.class.getMethod("destroy");
+        MethodMetadata metadata = server.getMetadata(method);
+        assertTrue(metadata.isPreDestroy());
+        assertSame(metadata, server.getMetadata(method));
+        assertSame(metadata.getMeasurement(), new CXFServer().getMetadata(method).getMeasurement());
+    }
+
+    @Test
+    public void replacesRegisteredMBean() throws Exception {
+        Method method = Resource.class.getMethod("put", String.class);
+        String name = "net.e6tech:type=Restful,name=" + Resource.class.getTypeName() + ".put|String";
+        JMXService.registerMBean(new Measurement("put", "ms", true), name);  // e.g. left by another class loader
+
+        CXFServer server = new CXFServer();
+        server.setMeasurement(true);
+        MethodMetadata metadata = server.getMetadata(method);
+        assertEquals(HistogramMeasurement.class.getName(),
+                ManagementFactory.getPlatformMBeanServer().getObjectInstance(new ObjectName(name)).getClassName());
+        metadata.getMeasurement().add(5);
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(name), "Count"));
+        JMXService.unregisterMBean(name);
+    }
+}